@@ -0,0 +1,142 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import static com.emc.mongoose.base.Constants.APP_NAME;
+import static com.emc.mongoose.base.config.CliArgUtil.ARG_PATH_SEP;
+
+import com.emc.mongoose.base.config.BundledDefaultsProvider;
+import com.emc.mongoose.base.data.DataInput;
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.DataItemImpl;
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.emc.mongoose.base.item.op.data.DataOperationImpl;
+import com.emc.mongoose.base.storage.driver.StorageDriver;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.github.akurilov.commons.system.SizeInBytes;
+import com.github.akurilov.confuse.Config;
+import com.github.akurilov.confuse.SchemaProvider;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ The common benchmark fixtures: the configuration, the data input and the operations
+ */
+public interface BenchmarkSupport {
+
+	String STEP_ID = "benchmark";
+	int BATCH_SIZE = 0x1_00;
+
+	String DRIVER_DEFAULTS_RESOURCE = "/config/defaults-storage-driver-aio.yaml";
+
+	/**
+	 Loads the driver specific defaults from the bundled defaults file, so the benchmarks run the same configuration as
+	 the users get
+	 @return the default values by the configuration paths like "storage-driver-aio-io-engine"
+	 */
+	static Map<String, Object> driverDefaults()
+	throws IOException {
+		try (final var in = BenchmarkSupport.class.getResourceAsStream(DRIVER_DEFAULTS_RESOURCE)) {
+			if (in == null) {
+				throw new FileNotFoundException("The bundled defaults not found: " + DRIVER_DEFAULTS_RESOURCE);
+			}
+			final Map<String, Object> tree = new ObjectMapper(new YAMLFactory())
+				.readValue(in, new TypeReference<Map<String, Object>>() {});
+			final Map<String, Object> defaults = new TreeMap<>();
+			flatten(null, tree, defaults);
+			return defaults;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void flatten(final String prefix, final Map<String, Object> tree, final Map<String, Object> dst) {
+		tree.forEach(
+			(k, v) -> {
+				final var path = prefix == null ? k : prefix + ARG_PATH_SEP + k;
+				if (v instanceof Map) {
+					flatten(path, (Map<String, Object>) v, dst);
+				} else {
+					dst.put(path, v);
+				}
+			}
+		);
+	}
+
+	/**
+	 Loads the configuration the same way as the mongoose CLI does (w/o the user defaults)
+	 @param overrides the configuration values to override the defaults, only the ones the benchmark needs
+	 @return the storage configuration subtree
+	 */
+	static Config storageConfig(final Map<String, Object> overrides)
+	throws Exception {
+		final var schema = SchemaProvider.resolveAndReduce(APP_NAME, Thread.currentThread().getContextClassLoader());
+		final var config = new BundledDefaultsProvider().config(ARG_PATH_SEP, schema);
+		driverDefaults().forEach(config::val);
+		config.val("storage-driver-limit-concurrency", 0x1_00);
+		overrides.forEach(config::val);
+		return config.configVal("storage");
+	}
+
+	static DataInput dataInput()
+	throws Exception {
+		return DataInput.instance(null, "7a42d9c483244167", new SizeInBytes("4MB"), 16);
+	}
+
+	static DataOperation<DataItem> dataOp(
+		final OpType opType, final String name, final long size, final String srcPath, final String dstPath
+	) {
+		return new DataOperationImpl<>(0, opType, new DataItemImpl(name, 0, size), srcPath, dstPath, null, null, 0);
+	}
+
+	/**
+	 Submits the operation and waits for its completion
+	 */
+	static <O extends DataOperation<DataItem>> O execute(final StorageDriver<DataItem, O> driver, final O op)
+	throws Exception {
+		op.reset();
+		while (!driver.put(op)) {
+			Thread.onSpinWait();
+		}
+		O completedOp;
+		while (null == (completedOp = driver.get())) {
+			Thread.onSpinWait();
+		}
+		return completedOp;
+	}
+
+	/**
+	 Submits all the operations and waits for their completion
+	 */
+	static <O extends DataOperation<DataItem>> void execute(
+		final StorageDriver<DataItem, O> driver, final List<O> ops, final List<O> completedOpsBuff
+	) throws Exception {
+		for (final var op : ops) {
+			op.reset();
+		}
+		var submittedCount = 0;
+		while (submittedCount < ops.size()) {
+			submittedCount += driver.put(ops, submittedCount, ops.size());
+		}
+		completedOpsBuff.clear();
+		while (completedOpsBuff.size() < ops.size()) {
+			driver.get(completedOpsBuff, ops.size() - completedOpsBuff.size());
+		}
+	}
+
+	static <O extends DataOperation<DataItem>> List<O> dataOps(
+		final OpType opType, final String namePrefix, final long size, final String srcPath, final String dstPath,
+		final int count
+	) {
+		final List<O> ops = new ArrayList<>(count);
+		for (var i = 0; i < count; i ++) {
+			ops.add((O) dataOp(opType, namePrefix + i, size, srcPath, dstPath));
+		}
+		return ops;
+	}
+}
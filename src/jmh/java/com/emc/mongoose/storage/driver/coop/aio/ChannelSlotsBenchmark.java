@@ -0,0 +1,81 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The open channel registry register/lookup/remove cycle per operation, should not allocate
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class ChannelSlotsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class SharedState {
+
+		@Param({"1000", "100000"})
+		public int concurrency;
+
+		ChannelSlots channelSlots;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			channelSlots = new ChannelSlots(concurrency);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+
+		final Object op = new Object();
+		final AsyncChannel channel = new AsyncChannel() {
+
+			@Override
+			public <A> void read(
+				final ByteBuffer dst, final long position, final A attach,
+				final CompletionHandler<Integer, ? super A> handler
+			) {
+			}
+
+			@Override
+			public <A> void write(
+				final ByteBuffer src, final long position, final A attach,
+				final CompletionHandler<Integer, ? super A> handler
+			) {
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	@Benchmark
+	public void registerLookupRemove(final SharedState shared, final ThreadState state, final Blackhole bh) {
+		final var channelSlots = shared.channelSlots;
+		channelSlots.put(state.op, state.channel);
+		bh.consume(channelSlots.get(state.op));
+		bh.consume(channelSlots.remove(state.op));
+	}
+}
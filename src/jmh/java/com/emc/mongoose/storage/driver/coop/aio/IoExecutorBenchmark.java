@@ -0,0 +1,66 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ The I/O executor task submit/execution cycle w/ and w/o the metrics. The metrics enabled executor should not allocate
+ more per task than the plain one (see the jmhCheckBaseline task).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class IoExecutorBenchmark {
+
+	private static final int TASKS_PER_INVOCATION = 0x1_00;
+	private static final int THREAD_COUNT = 2;
+	// the sampling allocates, so it should not happen during the measurement
+	private static final int METRICS_PERIOD = 3_600;
+
+	@Param({"false", "true"})
+	public boolean metricsFlag;
+
+	private final AtomicInteger doneCount = new AtomicInteger(0);
+	private final Runnable task = doneCount::incrementAndGet;
+	private IoMetrics metrics;
+	private IoExecutor executor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		metrics = metricsFlag ? new IoMetrics(BenchmarkSupport.STEP_ID, METRICS_PERIOD) : null;
+		executor = new IoExecutor(BenchmarkSupport.STEP_ID, THREAD_COUNT, null, metrics);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executor.shutdownNow();
+		if (metrics != null) {
+			metrics.close();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TASKS_PER_INVOCATION)
+	public int executeAndComplete() {
+		doneCount.set(0);
+		for (var i = 0; i < TASKS_PER_INVOCATION; i ++) {
+			executor.execute(task);
+		}
+		while (doneCount.get() < TASKS_PER_INVOCATION) {
+			Thread.onSpinWait();
+		}
+		return doneCount.get();
+	}
+}
@@ -0,0 +1,91 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.emc.mongoose.base.storage.driver.StorageDriver;
+import com.emc.mongoose.storage.driver.coop.aio.mem.MemStorageDriverExtension;
+import com.emc.mongoose.storage.driver.coop.aio.mock.AioStorageDriverMockExtension;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The end-to-end operation rate through the driver submit/completion cycle: the batch of the operations is submitted
+ and all the completions are awaited. The in-memory driver covers the whole AIO data path without the device latency,
+ the mock driver covers the coop driver scheduling only.
+ The driver reuses its per operation state (the completion handlers, the windowed create and the ranges update states,
+ the item slices, the buffers, the in-memory channels and their I/O tasks), so the cycle should not allocate (see the
+ jmhAllocLimits in the build script). The items are stored w/o the path, so the item name is not concatenated per
+ operation. The update is not covered because each full update generates the new data layer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class OpCycleBenchmark {
+
+	private static final int OPS_PER_INVOCATION = 0x1_00;
+
+	@Param({"aio-mem", "aio-mock"})
+	public String driverType;
+
+	@Param({"1024", "65536", "1048576"})
+	public long itemSize;
+
+	@Param({"CREATE", "READ"})
+	public OpType opType;
+
+	private StorageDriver<DataItem, DataOperation<DataItem>> driver;
+	private List<DataOperation<DataItem>> ops;
+	private final List<DataOperation<DataItem>> completedOpsBuff = new ArrayList<>(OPS_PER_INVOCATION);
+
+	@Setup(Level.Trial) @SuppressWarnings("unchecked")
+	public void setup()
+	throws Exception {
+		final var storageConfig = BenchmarkSupport.storageConfig(Map.of());
+		final var dataInput = BenchmarkSupport.dataInput();
+		if ("aio-mem".equals(driverType)) {
+			driver = new MemStorageDriverExtension().create(
+				BenchmarkSupport.STEP_ID, dataInput, storageConfig, false, BenchmarkSupport.BATCH_SIZE
+			);
+		} else {
+			driver = new AioStorageDriverMockExtension().create(
+				BenchmarkSupport.STEP_ID, dataInput, storageConfig, false, BenchmarkSupport.BATCH_SIZE
+			);
+		}
+		driver.start();
+		ops = BenchmarkSupport.dataOps(OpType.CREATE, "item", itemSize, null, null, OPS_PER_INVOCATION);
+		if (OpType.READ.equals(opType)) {
+			BenchmarkSupport.execute(driver, ops, completedOpsBuff); // create the items to read
+			ops = BenchmarkSupport.dataOps(OpType.READ, "item", itemSize, null, null, OPS_PER_INVOCATION);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	throws Exception {
+		driver.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPS_PER_INVOCATION)
+	public List<DataOperation<DataItem>> submitAndComplete()
+	throws Exception {
+		BenchmarkSupport.execute(driver, ops, completedOpsBuff);
+		return completedOpsBuff;
+	}
+}
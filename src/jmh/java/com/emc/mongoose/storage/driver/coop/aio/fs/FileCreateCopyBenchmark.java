@@ -0,0 +1,88 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.emc.mongoose.base.storage.driver.StorageDriver;
+import com.emc.mongoose.storage.driver.coop.aio.BenchmarkSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The single file create (invokeCreateData) and copy (invokeCopyData) time for the different file sizes and I/O engines
+ (the completion handlers vs the blocking I/O in the virtual threads, the copy is not affected by the engine) with and
+ without the small files fast path
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileCreateCopyBenchmark {
+
+	@Param({"1024", "1048576", "67108864", "1073741824"})
+	public long itemSize;
+
+	@Param({"false", "true"})
+	public boolean copyFlag;
+
+	@Param({"nio", "vthread"})
+	public String ioEngine;
+
+	/** The small files fast path threshold, 0 disables */
+	@Param({"0", "65536"})
+	public long smallSize;
+
+	private Path dir;
+	private StorageDriver<DataItem, DataOperation<DataItem>> driver;
+	private DataOperation<DataItem> op;
+
+	@Setup(Level.Trial) @SuppressWarnings("unchecked")
+	public void setup()
+	throws Exception {
+		dir = Files.createTempDirectory(getClass().getSimpleName());
+		final var srcDir = dir.resolve("src").toString();
+		final var dstDir = dir.resolve("dst").toString();
+		final var storageConfig = BenchmarkSupport.storageConfig(
+			Map.of("storage-driver-aio-io-engine", ioEngine, "storage-driver-aio-small-size", smallSize)
+		);
+		driver = new FileStorageDriverExtension().create(
+			BenchmarkSupport.STEP_ID, BenchmarkSupport.dataInput(), storageConfig, false, BenchmarkSupport.BATCH_SIZE
+		);
+		driver.start();
+		final var createOp = BenchmarkSupport.dataOp(OpType.CREATE, "item", itemSize, null, srcDir);
+		if (copyFlag) {
+			BenchmarkSupport.execute(driver, createOp); // create the source file to copy
+			op = BenchmarkSupport.dataOp(OpType.CREATE, "item", itemSize, srcDir, dstDir);
+		} else {
+			op = createOp;
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	throws Exception {
+		driver.close();
+		new DirIoHelper.DirTreeDeleteAction(dir).invoke();
+	}
+
+	@Benchmark
+	public DataOperation<DataItem> createOrCopy()
+	throws Exception {
+		return BenchmarkSupport.execute(driver, op);
+	}
+}
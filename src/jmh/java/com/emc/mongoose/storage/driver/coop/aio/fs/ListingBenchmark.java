@@ -0,0 +1,71 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.DataItemFactoryImpl;
+import com.emc.mongoose.base.item.ItemFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The time to list the whole synthetic directory page by page using the listing cursor
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListingBenchmark {
+
+	private static final int PAGE_SIZE = 1_000;
+
+	@Param({"10000", "1000000"})
+	public int fileCount;
+
+	private Path dir;
+	private final ItemFactory<DataItem> itemFactory = new DataItemFactoryImpl<>();
+
+	@Setup(Level.Trial)
+	public void setup()
+	throws IOException {
+		dir = Files.createTempDirectory(getClass().getSimpleName());
+		for (var i = 0; i < fileCount; i ++) {
+			Files.createFile(dir.resolve(Integer.toString(i, Character.MAX_RADIX)));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		new DirIoHelper.DirTreeDeleteAction(dir).invoke();
+	}
+
+	@Benchmark
+	public void listAll(final Blackhole bh)
+	throws IOException {
+		try (final var cursor = new ListingHelper.ListingCursor(dir.toString(), null)) {
+			DataItem lastItem = null;
+			while (true) {
+				final var items = ListingHelper.list(cursor, itemFactory, Character.MAX_RADIX, lastItem, PAGE_SIZE);
+				bh.consume(items);
+				if (items.size() < PAGE_SIZE) {
+					break;
+				}
+				lastItem = items.get(items.size() - 1);
+			}
+		}
+	}
+}
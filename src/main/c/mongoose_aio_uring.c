@@ -0,0 +1,195 @@
+/*
+ The JNI binding of the io_uring (via liburing) for the com.emc.mongoose.storage.driver.coop.aio.fs.IoUring class.
+ Requires Linux 5.11+ (IORING_FEAT_EXT_ARG) and liburing 2.2+. Built by the nativeLib Gradle task (gcc and the
+ liburing headers are required, skip it with -PskipNativeLib) and bundled into the jar as
+ native/linux-<os.arch>/libmongoose-aio-uring.so. The library found in the java.library.path takes precedence.
+ */
+#define _GNU_SOURCE
+#include <errno.h>
+#include <fcntl.h>
+#include <jni.h>
+#include <liburing.h>
+#include <stdlib.h>
+#include <string.h>
+#include <unistd.h>
+
+#define OPEN_READ 1
+#define OPEN_WRITE 2
+#define OPEN_CREATE 4
+#define OPEN_TRUNCATE 8
+#define OPEN_DIRECT 16
+
+#define RING(ring) ((struct io_uring *) (intptr_t) (ring))
+
+JNIEXPORT jlong JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_init(
+	JNIEnv *env, jclass cls, jint entries
+) {
+	struct io_uring *ring = malloc(sizeof(struct io_uring));
+	if (ring == NULL) {
+		return -ENOMEM;
+	}
+	const int ret = io_uring_queue_init((unsigned) entries, ring, 0);
+	if (ret < 0) {
+		free(ring);
+		return ret;
+	}
+	if (!(ring->features & IORING_FEAT_EXT_ARG)) { // the completions wait with the timeout would use the SQ otherwise
+		io_uring_queue_exit(ring);
+		free(ring);
+		return -EOPNOTSUPP;
+	}
+	return (jlong) (intptr_t) ring;
+}
+
+JNIEXPORT void JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_destroy(
+	JNIEnv *env, jclass cls, jlong ring
+) {
+	io_uring_queue_exit(RING(ring));
+	free(RING(ring));
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_open(
+	JNIEnv *env, jclass cls, jstring path, jint openFlags
+) {
+	int flags = O_CLOEXEC;
+	if ((openFlags & OPEN_READ) && (openFlags & OPEN_WRITE)) {
+		flags |= O_RDWR;
+	} else if (openFlags & OPEN_WRITE) {
+		flags |= O_WRONLY;
+	} else {
+		flags |= O_RDONLY;
+	}
+	if (openFlags & OPEN_CREATE) {
+		flags |= O_CREAT;
+	}
+	if (openFlags & OPEN_TRUNCATE) {
+		flags |= O_TRUNC;
+	}
+	if (openFlags & OPEN_DIRECT) {
+		flags |= O_DIRECT;
+	}
+	const char *cPath = (*env)->GetStringUTFChars(env, path, NULL);
+	if (cPath == NULL) {
+		return -ENOMEM;
+	}
+	const int fd = open(cPath, flags, 0644);
+	const int err = errno;
+	(*env)->ReleaseStringUTFChars(env, path, cPath);
+	return fd < 0 ? -err : fd;
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_sync(
+	JNIEnv *env, jclass cls, jint fd, jboolean metaData
+) {
+	const int ret = metaData ? fsync(fd) : fdatasync(fd);
+	return ret < 0 ? -errno : 0;
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_close(
+	JNIEnv *env, jclass cls, jint fd
+) {
+	return close(fd) < 0 ? -errno : 0;
+}
+
+static jint prepRw(
+	JNIEnv *env, jlong ring, jint op, jint fd, jobject buff, jint buffPos, jint len, jlong offset, jlong userData
+) {
+	char *addr = (*env)->GetDirectBufferAddress(env, buff);
+	if (addr == NULL) {
+		return -EINVAL;
+	}
+	struct io_uring_sqe *sqe = io_uring_get_sqe(RING(ring));
+	if (sqe == NULL) { // the submission queue is full, submit and retry
+		const int ret = io_uring_submit(RING(ring));
+		if (ret < 0) {
+			return ret;
+		}
+		sqe = io_uring_get_sqe(RING(ring));
+		if (sqe == NULL) {
+			return -EBUSY;
+		}
+	}
+	if (op == IORING_OP_READ) {
+		io_uring_prep_read(sqe, fd, addr + buffPos, (unsigned) len, (__u64) offset);
+	} else {
+		io_uring_prep_write(sqe, fd, addr + buffPos, (unsigned) len, (__u64) offset);
+	}
+	io_uring_sqe_set_data64(sqe, (__u64) userData);
+	return 0;
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_prepRead(
+	JNIEnv *env, jclass cls, jlong ring, jint fd, jobject buff, jint buffPos, jint len, jlong offset, jlong userData
+) {
+	return prepRw(env, ring, IORING_OP_READ, fd, buff, buffPos, len, offset, userData);
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_prepWrite(
+	JNIEnv *env, jclass cls, jlong ring, jint fd, jobject buff, jint buffPos, jint len, jlong offset, jlong userData
+) {
+	return prepRw(env, ring, IORING_OP_WRITE, fd, buff, buffPos, len, offset, userData);
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_prepClose(
+	JNIEnv *env, jclass cls, jlong ring, jint fd, jlong userData
+) {
+	struct io_uring_sqe *sqe = io_uring_get_sqe(RING(ring));
+	if (sqe == NULL) {
+		const int ret = io_uring_submit(RING(ring));
+		if (ret < 0) {
+			return ret;
+		}
+		sqe = io_uring_get_sqe(RING(ring));
+		if (sqe == NULL) {
+			return -EBUSY;
+		}
+	}
+	io_uring_prep_close(sqe, fd);
+	io_uring_sqe_set_data64(sqe, (__u64) userData);
+	return 0;
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_submit(
+	JNIEnv *env, jclass cls, jlong ring
+) {
+	return io_uring_submit(RING(ring));
+}
+
+JNIEXPORT jint JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_reap(
+	JNIEnv *env, jclass cls, jlong ring, jlongArray userData, jintArray results, jlong timeoutNanos
+) {
+	struct io_uring_cqe *cqe;
+	struct __kernel_timespec timeout = {
+		.tv_sec = timeoutNanos / 1000000000L,
+		.tv_nsec = timeoutNanos % 1000000000L,
+	};
+	int ret = io_uring_wait_cqe_timeout(RING(ring), &cqe, &timeout);
+	if (ret == -ETIME || ret == -EINTR) {
+		return 0;
+	} else if (ret < 0) {
+		return ret;
+	}
+	const jsize max = (*env)->GetArrayLength(env, userData);
+	jlong *userDataElems = (*env)->GetPrimitiveArrayCritical(env, userData, NULL);
+	jint *resultElems = (*env)->GetPrimitiveArrayCritical(env, results, NULL);
+	unsigned head;
+	jsize n = 0;
+	io_uring_for_each_cqe(RING(ring), head, cqe) {
+		if (n == max) {
+			break;
+		}
+		userDataElems[n] = (jlong) io_uring_cqe_get_data64(cqe);
+		resultElems[n] = cqe->res;
+		n ++;
+	}
+	io_uring_cq_advance(RING(ring), (unsigned) n);
+	(*env)->ReleasePrimitiveArrayCritical(env, results, resultElems, 0);
+	(*env)->ReleasePrimitiveArrayCritical(env, userData, userDataElems, 0);
+	return n;
+}
+
+JNIEXPORT jstring JNICALL Java_com_emc_mongoose_storage_driver_coop_aio_fs_IoUring_strerror(
+	JNIEnv *env, jclass cls, jint errnum
+) {
+	return (*env)->NewStringUTF(env, strerror(errnum));
+}
@@ -1,10 +1,13 @@
 package com.emc.mongoose.storage.driver.coop.aio;
 
 import com.emc.mongoose.base.config.IllegalConfigurationException;
+import com.emc.mongoose.base.data.DataCorruptionException;
 import com.emc.mongoose.base.data.DataInput;
 import com.emc.mongoose.base.item.DataItem;
 import com.emc.mongoose.base.item.Item;
+import com.emc.mongoose.base.item.PathItem;
 import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.item.op.OpType;
 import com.emc.mongoose.base.item.op.Operation;
 import com.emc.mongoose.base.item.op.data.DataOperation;
 import com.emc.mongoose.base.item.op.path.PathOperation;
@@ -15,8 +18,8 @@ import com.emc.mongoose.storage.driver.coop.CoopStorageDriverBase;
 import static com.emc.mongoose.base.item.op.Operation.Status.ACTIVE;
 import static com.emc.mongoose.base.item.op.Operation.Status.FAIL_IO;
 import static com.emc.mongoose.base.item.op.Operation.Status.PENDING;
+import static com.emc.mongoose.base.item.op.Operation.Status.RESP_FAIL_CORRUPT;
 
-import com.github.akurilov.commons.system.DirectMemUtil;
 import com.github.akurilov.confuse.Config;
 
 import org.apache.logging.log4j.Level;
@@ -24,52 +27,233 @@ import org.apache.logging.log4j.Level;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.CompletionHandler;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AioStorageDriverBase<I extends Item, O extends Operation<I>>
 extends CoopStorageDriverBase<I, O>
 implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 
-	private final Map<DataOperation, AsyncChannel> srcOpenChannels = new ConcurrentHashMap<>();
-	private final Map<DataOperation, AsyncChannel> dstOpenChannels = new ConcurrentHashMap<>();
+	public static final int IO_CHUNK_SIZE = 0x10_00_00; // 1MB
+	public static final int IO_BUFF_POOL_CAPACITY_MAX = 0x4_00;
+	private static final int HANDLER_POOL_CAPACITY_MAX = 0x1_00_00;
+	/** The I/O buffers are aligned to the memory page size to be usable for the direct I/O as is */
+	public static final int IO_BUFF_ALIGNMENT = 0x10_00;
+	/**
+	 The I/O buffers are aligned to the max supported file system block size if the direct I/O is enabled, so the
+	 full chunks don't need the bounce buffers for any block size
+	 */
+	public static final int DIRECT_IO_BUFF_ALIGNMENT = 0x1_00_00;
+
+	private final ChannelSlots srcOpenChannels;
+	private final ChannelSlots dstOpenChannels;
+	final IoBufferPools ioBuffPools;
+	private final int ioBuffSizeMin;
+	private final int ioBuffSizeMax;
+	/** The I/O chunk size limits for each operation type, adjusted by the average transfer size */
+	private final AtomicIntegerArray ioChunkSizeLimits = new AtomicIntegerArray(OpType.values().length);
+	final ObjectPool<ReadCompletionHandler> readHandlerPool;
+	private final ObjectPool<CopyPipeline> copyPipelinePool;
+	private final ObjectPool<WindowedCreate> windowedCreatePool;
+	private final ObjectPool<SegmentWriteCompletionHandler> segmentHandlerPool;
+	private final ObjectPool<RangesUpdate> rangesUpdatePool;
+	private final ObjectPool<RangeWriteCompletionHandler> rangeHandlerPool;
+	private final int updateConcurrency;
+	private final int createWindow;
+	/** The create window adjusted by the average transfer size, not more than the configured one */
+	private volatile int createWindowAdjusted;
+	/** The I/O phases metrics, null if disabled */
+	protected final IoMetrics metrics;
+	private final AtomicLong throttleBlockedSince = new AtomicLong(0);
+	/** The slow operations tracer, null if disabled */
+	protected final OpTracer tracer;
 
 	protected AioStorageDriverBase(
 		final String testStepId, final DataInput dataInput, final Config storageConfig, final boolean verifyFlag,
 		final int batchSize
 	) throws IllegalConfigurationException {
 		super(testStepId, dataInput, storageConfig, verifyFlag, batchSize);
+		final var openChannelsCount = concurrencyLimit > 0 ? concurrencyLimit : IO_BUFF_POOL_CAPACITY_MAX;
+		srcOpenChannels = new ChannelSlots(openChannelsCount);
+		dstOpenChannels = new ChannelSlots(openChannelsCount);
+		final var aioConfig = storageConfig.configVal("driver-aio");
+		final var ioBuffConfig = aioConfig.configVal("io-buffer");
+		ioBuffSizeMin = ioBuffConfig.intVal("min");
+		ioBuffSizeMax = ioBuffConfig.intVal("max");
+		if (
+			ioBuffSizeMin < IO_BUFF_ALIGNMENT || Integer.bitCount(ioBuffSizeMin) != 1
+				|| ioBuffSizeMax < ioBuffSizeMin || Integer.bitCount(ioBuffSizeMax) != 1
+		) {
+			throw new IllegalConfigurationException(
+				"Invalid I/O buffer size range: [" + ioBuffSizeMin + ", " + ioBuffSizeMax + "], the sizes should be "
+					+ "the powers of 2 not less than " + IO_BUFF_ALIGNMENT
+			);
+		}
+		final var ioBuffPoolCapacity = concurrencyLimit > 0 ?
+			Math.min(concurrencyLimit, IO_BUFF_POOL_CAPACITY_MAX) : IO_BUFF_POOL_CAPACITY_MAX;
+		ioBuffPools = new IoBufferPools(
+			ioBuffSizeMin, ioBuffSizeMax, ioBuffPoolCapacity,
+			aioConfig.boolVal("direct") ? DIRECT_IO_BUFF_ALIGNMENT : IO_BUFF_ALIGNMENT
+		);
+		readHandlerPool = new ObjectPool<>(ioBuffPoolCapacity, () -> new ReadCompletionHandler(this));
+		copyPipelinePool = new ObjectPool<>(ioBuffPoolCapacity, () -> new CopyPipeline(this));
+		createWindow = aioConfig.intVal("create-window");
+		if (createWindow < 1) {
+			throw new IllegalConfigurationException(
+				"Invalid create window value: " + createWindow + ", should be more than 0"
+			);
+		}
+		createWindowAdjusted = createWindow;
+		windowedCreatePool = new ObjectPool<>(ioBuffPoolCapacity, WindowedCreate::new);
+		segmentHandlerPool = new ObjectPool<>(
+			(int) Math.min((long) ioBuffPoolCapacity * createWindow, HANDLER_POOL_CAPACITY_MAX),
+			() -> new SegmentWriteCompletionHandler(this)
+		);
+		// the default chunk size until adjusted
+		final var ioChunkSizeLimit = Math.max(ioBuffSizeMin, Math.min(ioBuffSizeMax, IO_CHUNK_SIZE));
+		for (var i = 0; i < ioChunkSizeLimits.length(); i ++) {
+			ioChunkSizeLimits.set(i, ioChunkSizeLimit);
+		}
+		updateConcurrency = aioConfig.intVal("update-concurrency");
+		if (updateConcurrency < 1) {
+			throw new IllegalConfigurationException(
+				"Invalid update concurrency value: " + updateConcurrency + ", should be more than 0"
+			);
+		}
+		rangesUpdatePool = new ObjectPool<>(ioBuffPoolCapacity, RangesUpdate::new);
+		rangeHandlerPool = new ObjectPool<>(
+			(int) Math.min((long) ioBuffPoolCapacity * updateConcurrency, HANDLER_POOL_CAPACITY_MAX),
+			() -> new RangeWriteCompletionHandler(this)
+		);
+		final var metricsPeriod = aioConfig.intVal("metrics-period");
+		if (metricsPeriod < 0) {
+			throw new IllegalConfigurationException(
+				"Invalid metrics period value: " + metricsPeriod + ", should not be less than 0"
+			);
+		}
+		metrics = metricsPeriod > 0 ? new IoMetrics(testStepId, metricsPeriod) : null;
+		final var traceConfig = aioConfig.configVal("trace");
+		final var traceThreshold = traceConfig.intVal("threshold");
+		if (traceThreshold < 0) {
+			throw new IllegalConfigurationException(
+				"Invalid trace threshold value: " + traceThreshold + ", should not be less than 0"
+			);
+		}
+		if (traceThreshold > 0) {
+			final var traceCapacity = traceConfig.intVal("capacity");
+			if (traceCapacity < 1) {
+				throw new IllegalConfigurationException(
+					"Invalid trace capacity value: " + traceCapacity + ", should be more than 0"
+				);
+			}
+			final var traceFile = traceConfig.stringVal("file");
+			final var traceFilePath = traceFile == null || traceFile.isEmpty() ?
+				Paths.get(System.getProperty("java.io.tmpdir"), testStepId + "-slow-ops.trace") :
+				Paths.get(traceFile);
+			try {
+				tracer = new OpTracer(testStepId, traceCapacity, openChannelsCount, traceThreshold, traceFilePath);
+			} catch (final IOException e) {
+				throw new IllegalConfigurationException(
+					"Failed to open the trace file \"" + traceFilePath + "\": " + e.getMessage()
+				);
+			}
+		} else {
+			tracer = null;
+		}
 	}
 
+	/**
+	 Submits the single operation and flushes its I/O at once, as far as there's no batch to flush after
+	 */
 	@Override
-	protected boolean submit(final O op)
+	protected final boolean submit(final O op)
+	throws IllegalStateException {
+		final var submitted = submitOperation(op);
+		flushSubmitted();
+		return submitted;
+	}
+
+	/**
+	 Starts the operation w/o flushing the I/O requested by it
+	 @return false if the operation has not been accepted, true otherwise
+	 */
+	protected boolean submitOperation(final O op)
 	throws IllegalStateException {
 		final var status = op.status();
 		if(PENDING.equals(status)) {
 			if(concurrencyThrottle.tryAcquire()) {
-				Loggers.MSG.trace("{}: start operation \"{}\"", stepId, op);
+				if (metrics != null) {
+					throttleReleased();
+				}
+				if (tracer != null) {
+					tracer.begin(op);
+				}
+				if(Loggers.MSG.isTraceEnabled()) {
+					Loggers.MSG.trace("{}: start operation \"{}\"", stepId, op);
+				}
 				op.startRequest();
 			} else {
+				if (metrics != null) {
+					throttleBlockedSince.compareAndSet(0, System.nanoTime());
+				}
 				return false;
 			}
 		} else if(ACTIVE.equals(status)){
-			Loggers.MSG.trace("{}: continue the operation \"{}\"", stepId, op);
+			if(Loggers.MSG.isTraceEnabled()) {
+				Loggers.MSG.trace("{}: continue the operation \"{}\"", stepId, op);
+			}
 		} else {
 			return true; // dirty fix
 		}
 
+		// finish the request before the invocation as far as the operation may be completed by another thread
+		op.finishRequest();
 		if (op instanceof DataOperation) {
 			submitDataOperation((DataOperation<? extends DataItem>) op);
 		} else if (op instanceof PathOperation) {
-			throw new AssertionError("Not implemented");
+			invokePathOperation((PathOperation<? extends PathItem>) op);
 		} else {
 			throw new AssertionError("Not implemented");
 		}
-		op.finishRequest();
 		return true;
 	}
 
+	/**
+	 Records the throttle saturation episode duration if the throttle has been saturated before
+	 */
+	private void throttleReleased() {
+		if (throttleBlockedSince.get() != 0) {
+			final var blockedSince = throttleBlockedSince.getAndSet(0);
+			if (blockedSince != 0) {
+				metrics.record(IoMetrics.Phase.THROTTLE_WAIT, blockedSince);
+			}
+		}
+	}
+
+	/**
+	 @return the chunk I/O start time to pass to {@link #ioDone(long)}, 0 if the metrics are disabled
+	 */
+	protected final long ioStartTime() {
+		return metrics == null ? 0 : System.nanoTime();
+	}
+
+	protected final void ioDone(final long startTime) {
+		if (startTime != 0) {
+			metrics.record(IoMetrics.Phase.CHUNK_IO, startTime);
+		}
+	}
+
+	/**
+	 Records the chunk I/O completion event for the traced operation
+	 */
+	final void traceCompleted(final DataOperation<? extends DataItem> dataOp, final int n) {
+		if (tracer != null) {
+			tracer.event(dataOp, OpTracer.EVENT_COMPLETED, n);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	final void submitDataOperation(final DataOperation<? extends DataItem> op) {
 
@@ -80,18 +264,26 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 		final var item = op.item();
 
 		try {
+			if (invokeBlockingData(op)) {
+				return;
+			}
 			switch (opType) {
 				case NOOP:
 					completeOperation((O) op, null, null);
 					break;
 				case CREATE:
+					if (invokeZeroCopyData(op)) {
+						break;
+					}
 					dstChannel = destinationChannel(op);
 					if (dstChannel == null) {
+						finishOperation((O) op, null, null);
 						break;
 					}
 					srcChannel = sourceChannel(op);
 					if (srcChannel == null) {
 						if (op.status().equals(Operation.Status.FAIL_IO)) {
+							finishOperation((O) op, null, dstChannel);
 							break;
 						} else {
 							invokeCreateData(op, dstChannel);
@@ -101,16 +293,30 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 					}
 					break;
 				case READ:
-					throw new AssertionError("Not implemented yet");
+					srcChannel = sourceChannel(op);
+					if (srcChannel == null) {
+						finishOperation((O) op, null, null);
+					} else {
+						invokeReadData(op, srcChannel);
+					}
+					break;
 				case UPDATE:
-					throw new AssertionError("Not implemented yet");
+					dstChannel = destinationChannel(op);
+					if (dstChannel == null) {
+						finishOperation((O) op, null, null);
+					} else {
+						invokeUpdateData(op, dstChannel);
+					}
+					break;
 				case DELETE:
-					throw new AssertionError("Not implemented yet");
+					invokeDelete(op);
+					break;
 				case LIST:
 					throw new AssertionError("Not implemented yet");
 			}
 		} catch(final IOException e) {
-			LogUtil.exception(Level.WARN, e, "{}: failed to invoke the load operation {}", stepId, op);
+			// thrown before the I/O is started so the operation should be finished here
+			failed(e, op);
 		}
 	}
 
@@ -118,13 +324,22 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 	protected final int submit(final List<O> ops, final int from, final int to)
 	throws IllegalStateException {
 		for(var i = from; i < to; i ++) {
-			if(!submit(ops.get(i))) {
+			if(!submitOperation(ops.get(i))) {
+				flushSubmitted();
 				return i - from;
 			}
 		}
+		flushSubmitted();
 		return to - from;
 	}
 
+	/**
+	 Invoked after the batch of the operations or the single operation is submitted. The implementation may submit the
+	 I/O requested by the batch at once here.
+	 */
+	protected void flushSubmitted() {
+	}
+
 	@Override
 	protected final int submit(final List<O> ops)
 	throws IllegalStateException {
@@ -134,32 +349,132 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 	protected abstract AsyncChannel openSourceChannel(final DataOperation<? extends DataItem> dataOp);
 
 	protected final AsyncChannel sourceChannel(final DataOperation<? extends DataItem> dataOp) {
-		return srcOpenChannels.computeIfAbsent(dataOp, this::openSourceChannel);
+		var channel = srcOpenChannels.get(dataOp);
+		if (channel == null) {
+			final var startTime = metrics == null ? 0 : System.nanoTime();
+			channel = openSourceChannel(dataOp);
+			if (startTime != 0) {
+				metrics.record(IoMetrics.Phase.CHANNEL_OPEN, startTime);
+			}
+			if (tracer != null) {
+				tracer.event(dataOp, OpTracer.EVENT_OPEN, 0);
+			}
+			if (channel != null) {
+				srcOpenChannels.put(dataOp, channel);
+			}
+		}
+		return channel;
 	}
 
 	protected abstract AsyncChannel openDestinationChannel(final DataOperation<? extends DataItem> dataOp);
 
 	protected final AsyncChannel destinationChannel(final DataOperation<? extends DataItem> dataOp) {
-		return dstOpenChannels.computeIfAbsent(dataOp, this::openDestinationChannel);
+		var channel = dstOpenChannels.get(dataOp);
+		if (channel == null) {
+			final var startTime = metrics == null ? 0 : System.nanoTime();
+			channel = openDestinationChannel(dataOp);
+			if (startTime != 0) {
+				metrics.record(IoMetrics.Phase.CHANNEL_OPEN, startTime);
+			}
+			if (tracer != null) {
+				tracer.event(dataOp, OpTracer.EVENT_OPEN, 0);
+			}
+			if (channel != null) {
+				dstOpenChannels.put(dataOp, channel);
+			}
+		}
+		return channel;
 	}
 
 	@SuppressWarnings("unchecked")
 	protected final void invokeCreateData(final DataOperation dataOp, final AsyncChannel dstChan)
 	throws IOException {
-		Loggers.MSG.trace("{}: invoke create data \"{}\"", stepId, dataOp);
+		if (Loggers.MSG.isTraceEnabled()) {
+			Loggers.MSG.trace("{}: invoke create data \"{}\"", stepId, dataOp);
+		}
 		final var dataItem = dataOp.item();
 		final var countBytesDone = dataOp.countBytesDone();
 		final var contentSize = dataItem.size();
 		if (countBytesDone < contentSize) {
-			dataItem.writeToAsyncChannel(
-				dstChan, countBytesDone, contentSize - countBytesDone, dataOp,
-				((CompletionHandler<Integer, ? super DataOperation>) ((Object) this))
-			);
+			final var window = createWindowAdjusted;
+			final var segmentSize = ioChunkSizeLimits.get(OpType.CREATE.ordinal());
+			if (window > 1 && contentSize - countBytesDone > segmentSize) {
+				invokeCreateDataWindowed(dataOp, dstChan, countBytesDone, contentSize, window, segmentSize);
+			} else {
+				dataItem.writeToAsyncChannel(
+					dstChan, countBytesDone, contentSize - countBytesDone, dataOp,
+					((CompletionHandler<Integer, ? super DataOperation>) ((Object) this))
+				);
+			}
 		} else {
 			completeOperation((O) dataOp, null, dstChan);
 		}
 	}
 
+	/**
+	 Starts up to the configured count of the concurrent positional writes of the aligned item content segments. The
+	 operation is not resubmitted until all the segments are written.
+	 */
+	private void invokeCreateDataWindowed(
+		final DataOperation<? extends DataItem> dataOp, final AsyncChannel dstChan, final long countBytesDone,
+		final long contentSize, final int window, final int segmentSize
+	) {
+		final var windowedCreate = windowedCreatePool
+			.lease()
+			.init(dataOp, dstChan, countBytesDone, contentSize, segmentSize);
+		for (var i = 0; i < window; i ++) {
+			final var segmentPos = windowedCreate.start();
+			if (segmentPos < 0) {
+				break;
+			}
+			final var handler = segmentHandlerPool.lease().init(windowedCreate);
+			try {
+				handler.write(segmentPos);
+			} catch (final IOException e) {
+				handler.failed(e, dataOp);
+				break;
+			}
+		}
+		windowedCreateDone(windowedCreate, windowedCreate.started());
+	}
+
+	/**
+	 Invoked on the segment write completion. Writes the next segment using the same handler if any segments left.
+	 */
+	@SuppressWarnings("unchecked")
+	final void segmentWriteCompleted(final SegmentWriteCompletionHandler handler) {
+		final var windowedCreate = handler.windowedCreate;
+		final var segmentPos = windowedCreate.next(handler.segmentSize());
+		if (segmentPos >= 0) {
+			try {
+				handler.write(segmentPos);
+			} catch (final IOException e) {
+				handler.failed(e, windowedCreate.dataOp);
+			}
+		} else {
+			handler.clear();
+			segmentHandlerPool.release(handler);
+			windowedCreateDone(windowedCreate, segmentPos);
+		}
+	}
+
+	/**
+	 Completes the operation if all the segments are written and releases the state if no writes are in flight
+	 */
+	@SuppressWarnings("unchecked")
+	private void windowedCreateDone(final WindowedCreate windowedCreate, final long state) {
+		if (state == WindowedCreate.ALL_DONE) {
+			final var dataOp = windowedCreate.dataOp;
+			final var dstChan = windowedCreate.dstChan;
+			windowedCreate.clear();
+			windowedCreatePool.release(windowedCreate);
+			completeOperation((O) dataOp, null, dstChan);
+		} else if (state == WindowedCreate.ABORTED) {
+			windowedCreate.clear();
+			windowedCreatePool.release(windowedCreate);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	protected final void invokeCopyData(
 		final DataOperation dataOp, final AsyncChannel srcChan, final AsyncChannel dstChan
@@ -169,19 +484,304 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 		final var contentSize = dataItem.size();
 		final var countBytesRemaining = contentSize - countBytesDone;
 		if (countBytesRemaining > 0) {
-			final var buff = DirectMemUtil.getThreadLocalReusableBuff(countBytesRemaining);
-			final var copyCompletionHandler = copyCompletionHandler(dstChan, buff, countBytesDone, dataOp);
-			srcChan.read(buff, countBytesDone, dataOp, copyCompletionHandler);
+			final var buff1 = ioBuffPools.lease(ioChunkSize(OpType.CREATE, countBytesRemaining));
+			final var buff2 = countBytesRemaining > buff1.capacity() ? ioBuffPools.tryLease(buff1.capacity()) : null;
+			copyPipelinePool
+				.lease()
+				.start(dataOp, srcChan, dstChan, countBytesDone, contentSize, buff1, buff2);
 		} else {
 			completeOperation((O) dataOp, srcChan, dstChan);
 		}
 	}
 
+	/**
+	 Performs the path (directory) operation. The implementation is responsible for the operation completion.
+	 */
+	protected void invokePathOperation(final PathOperation<? extends PathItem> pathOp) {
+		throw new AssertionError("Not implemented");
+	}
+
+	/**
+	 Copies the data item content without passing it through the user space if supported. The implementation is
+	 responsible for the operation completion if the copy is accepted.
+	 @return false if the operation is not a copy or the zero copy is not supported/enabled, true otherwise
+	 */
+	protected boolean invokeZeroCopyData(final DataOperation<? extends DataItem> dataOp) {
+		return false;
+	}
+
+	/**
+	 Executes the whole data operation using the blocking I/O instead of the completion handlers. The implementation is
+	 responsible for the operation completion if the operation is accepted.
+	 @return false if the blocking I/O is not enabled or not supported for the operation, true otherwise
+	 */
+	protected boolean invokeBlockingData(final DataOperation<? extends DataItem> dataOp)
+	throws IOException {
+		return false;
+	}
+
+	/**
+	 @return the size of the next I/O chunk for the operation: the power of 2 not less than the remaining count of bytes
+	 (but not less than the min I/O buffer size), limited by the chunk size adjusted for the operation type
+	 */
+	protected final int ioChunkSize(final OpType opType, final long countBytesRemaining) {
+		final var limit = ioChunkSizeLimits.get(opType.ordinal());
+		if (countBytesRemaining >= limit) {
+			return limit;
+		}
+		return Math.max(ioBuffSizeMin, IoBufferPools.ceilPowerOf2((int) countBytesRemaining));
+	}
+
+	/**
+	 Adjusts the I/O chunk size limit for the operation type to the power of 2 not less than the average transfer size
+	 within the configured I/O buffer size range. The create window is adjusted to the count of such chunks in the
+	 average item, not more than the configured create window. So the small items get the small buffers and the large
+	 ones are transferred by the large chunks and, if enabled, by several writes concurrently.
+	 */
+	@Override
+	public void adjustIoBuffers(final long avgTransferSize, final OpType opType) {
+		final int chunkSizeLimit;
+		if (avgTransferSize >= ioBuffSizeMax) {
+			chunkSizeLimit = ioBuffSizeMax;
+		} else {
+			chunkSizeLimit = Math.max(ioBuffSizeMin, IoBufferPools.ceilPowerOf2((int) avgTransferSize));
+		}
+		ioChunkSizeLimits.set(opType.ordinal(), chunkSizeLimit);
+		if (OpType.CREATE.equals(opType)) {
+			createWindowAdjusted = (int) Math.max(1, Math.min(createWindow, avgTransferSize / chunkSizeLimit));
+		}
+		Loggers.MSG.debug(
+			"{}: the average transfer size {} for the {} operations, the I/O chunk size limit: {}, create window: {}",
+			stepId, avgTransferSize, opType, chunkSizeLimit, createWindowAdjusted
+		);
+	}
+
+	/**
+	 @param size the requested buffer size, see {@link #ioChunkSize(OpType, long)}
+	 @return the direct buffer from the pool, should be released back after the use
+	 */
+	protected final ByteBuffer leaseIoBuffer(final int size) {
+		return ioBuffPools.lease(size);
+	}
+
+	protected final void releaseIoBuffer(final ByteBuffer buff) {
+		ioBuffPools.release(buff);
+	}
+
+	/**
+	 Deletes the data item. The implementation is responsible for the operation completion.
+	 */
+	protected void invokeDelete(final DataOperation<? extends DataItem> dataOp) {
+		throw new AssertionError("Not implemented yet");
+	}
+
+	/**
+	 Reads the next chunk of the data item content into the pooled direct buffer. The chunk size is limited by the
+	 buffer size and, if the content should be verified for the updated item, by the current data range end.
+	 */
 	@SuppressWarnings("unchecked")
-	<F extends DataItem, D extends DataOperation<F>> CompletionHandler<Integer, D> copyCompletionHandler(
-		final AsyncChannel dstChan, final ByteBuffer buff, final long countBytesDone, final D dataOp
+	protected final void invokeReadData(final DataOperation dataOp, final AsyncChannel srcChan)
+	throws IOException {
+		final var dataItem = dataOp.item();
+		final var countBytesDone = dataOp.countBytesDone();
+		final var contentSize = dataItem.size();
+		if (countBytesDone < contentSize) {
+			var countBytesToRead = contentSize - countBytesDone;
+			if (verifyFlag && dataItem.isUpdated()) {
+				final var nextRangeOffset = DataItem.rangeOffset(dataOp.currRangeIdx() + 1);
+				countBytesToRead = Math.min(countBytesToRead, nextRangeOffset - countBytesDone);
+			}
+			final var buff = ioBuffPools.lease(ioChunkSize(OpType.READ, countBytesToRead));
+			if (countBytesToRead < buff.capacity()) {
+				buff.limit((int) countBytesToRead);
+			}
+			srcChan.read(
+				buff, countBytesDone, (DataOperation<? extends DataItem>) dataOp,
+				readHandlerPool.lease().init(srcChan, buff)
+			);
+		} else {
+			completeOperation((O) dataOp, srcChan, null);
+		}
+	}
+
+	/**
+	 Invoked on the read operation invocation completion. Verifies the chunk content if necessary.
+	 @param n the count of the bytes read, negative if the end of the file is reached
+	 @param dataOp the read operation
+	 @param srcChan the channel the data has been read from
+	 @param buff the buffer containing the data read, released back to the pool by this method
+	 */
+	@SuppressWarnings("unchecked")
+	final void readCompleted(
+		final int n, final DataOperation<? extends DataItem> dataOp, final AsyncChannel srcChan, final ByteBuffer buff
 	) {
-		return new CopyCompletionHandler<>(dstChan, buff, countBytesDone, dataOp, (CompletionHandler<Integer, D>) this);
+		final var dataItem = dataOp.item();
+		final var countBytesDone = dataOp.countBytesDone();
+		try {
+			if (n < 0) {
+				if (verifyFlag) {
+					Loggers.MSG.debug(
+						"{}: content size mismatch, expected: {}, actual: {}", dataItem.name(), dataItem.size(),
+						countBytesDone
+					);
+					dataOp.status(RESP_FAIL_CORRUPT);
+					finishOperation((O) dataOp, srcChan, null);
+				} else {
+					completeOperation((O) dataOp, srcChan, null);
+				}
+				return;
+			}
+			if (countBytesDone == 0) {
+				dataOp.startDataResponse();
+			}
+			if (verifyFlag) {
+				buff.flip();
+				if (dataItem.isUpdated()) {
+					final var currRangeIdx = dataOp.currRangeIdx();
+					final var currRange = dataOp.currRange();
+					currRange.position(countBytesDone - DataItem.rangeOffset(currRangeIdx));
+					currRange.verify(buff);
+					if (countBytesDone + n == DataItem.rangeOffset(currRangeIdx + 1)) {
+						dataOp.currRangeIdx(currRangeIdx + 1);
+					}
+				} else {
+					dataItem.position(countBytesDone);
+					dataItem.verify(buff);
+				}
+			}
+			dataOp.countBytesDone(countBytesDone + n);
+			dataItem.position(countBytesDone + n);
+			handleCompleted((O) dataOp); // will resubmit because the op state is "active"
+		} catch (final DataCorruptionException e) {
+			Loggers.MSG.debug(
+				"{}: content mismatch @ offset {}, expected: {}, actual: {} ", dataItem.name(),
+				countBytesDone + e.getOffset(), String.format("\"0x%X\"", (int) (e.expected & 0xFF)),
+				String.format("\"0x%X\"", (int) (e.actual & 0xFF))
+			);
+			dataOp.status(RESP_FAIL_CORRUPT);
+			finishOperation((O) dataOp, srcChan, null);
+		} catch (final IOException e) {
+			failed(e, dataOp);
+		} finally {
+			ioBuffPools.release(buff);
+		}
+	}
+
+	/**
+	 Starts up to the configured count of the concurrent positional writes for the updating ranges. The operation is
+	 not resubmitted until all the ranges are written.
+	 */
+	@SuppressWarnings("unchecked")
+	protected final void invokeUpdateData(final DataOperation dataOp, final AsyncChannel dstChan)
+	throws IOException {
+		if (Loggers.MSG.isTraceEnabled()) {
+			Loggers.MSG.trace("{}: invoke update data \"{}\"", stepId, dataOp);
+		}
+		final var rangesUpdate = rangesUpdatePool.lease();
+		try {
+			rangesUpdate.init(dataOp, dstChan);
+		} catch (final IOException e) {
+			rangesUpdate.clear();
+			rangesUpdatePool.release(rangesUpdate);
+			throw e;
+		}
+		final var buffSize = ioChunkSize(OpType.UPDATE, rangesUpdate.size());
+		for (var i = 0; i < updateConcurrency; i ++) {
+			final var buff = ioBuffPools.lease(buffSize);
+			final long filePos;
+			try {
+				filePos = rangesUpdate.start(buff);
+			} catch (final IOException e) {
+				ioBuffPools.release(buff);
+				if (rangesUpdate.fail()) {
+					failed(e, dataOp);
+				}
+				break;
+			}
+			if (filePos < 0) {
+				ioBuffPools.release(buff);
+				break;
+			}
+			rangeHandlerPool.lease().init(rangesUpdate, buff).write(filePos);
+		}
+		rangesUpdateDone(rangesUpdate, rangesUpdate.ended());
+	}
+
+	/**
+	 Invoked on the chunk write completion. Writes the next chunk using the same handler and buffer if any chunks left.
+	 */
+	final void rangeWriteCompleted(final RangeWriteCompletionHandler handler) {
+		final var rangesUpdate = handler.rangesUpdate;
+		final long filePos;
+		try {
+			filePos = rangesUpdate.next(handler.buff, handler.chunkSize());
+		} catch (final IOException e) {
+			rangeWriteFailed(handler, e);
+			return;
+		}
+		if (filePos < 0) {
+			rangeWriteDone(handler, filePos);
+		} else {
+			handler.write(filePos);
+		}
+	}
+
+	final void rangeWriteFailed(final RangeWriteCompletionHandler handler, final Throwable thrown) {
+		final var rangesUpdate = handler.rangesUpdate;
+		if (rangesUpdate.fail()) {
+			failed(thrown, rangesUpdate.dataOp);
+		}
+		rangeWriteDone(handler, rangesUpdate.ended());
+	}
+
+	/**
+	 Releases the handler and its buffer which have no more chunks to write
+	 */
+	private void rangeWriteDone(final RangeWriteCompletionHandler handler, final long state) {
+		final var rangesUpdate = handler.rangesUpdate;
+		ioBuffPools.release(handler.buff);
+		handler.clear();
+		rangeHandlerPool.release(handler);
+		rangesUpdateDone(rangesUpdate, state);
+	}
+
+	/**
+	 Completes the operation if all the ranges are written and releases the state if no writes are in flight
+	 */
+	@SuppressWarnings("unchecked")
+	private void rangesUpdateDone(final RangesUpdate rangesUpdate, final long state) {
+		if (state == RangesUpdate.ALL_DONE) {
+			final var dataOp = rangesUpdate.dataOp;
+			final var dstChan = rangesUpdate.dstChan;
+			rangesUpdate.commit();
+			rangesUpdate.clear();
+			rangesUpdatePool.release(rangesUpdate);
+			completeOperation((O) dataOp, null, dstChan);
+		} else if (state == RangesUpdate.ABORTED) {
+			rangesUpdate.clear();
+			rangesUpdatePool.release(rangesUpdate);
+		}
+	}
+
+	/**
+	 Invoked when the copy pipeline has written all the content. The pipeline is returned back to the pool then.
+	 */
+	@SuppressWarnings("unchecked")
+	final void copyCompleted(final CopyPipeline copyPipeline) {
+		final var dataOp = copyPipeline.dataOp;
+		final var srcChan = copyPipeline.srcChan;
+		final var dstChan = copyPipeline.dstChan;
+		copyPipeline.reset();
+		copyPipelinePool.release(copyPipeline);
+		completeOperation((O) dataOp, srcChan, dstChan);
+	}
+
+	/**
+	 Invoked when the failed copy pipeline has no more I/O in flight. The pipeline is returned back to the pool then.
+	 */
+	final void copyAborted(final CopyPipeline copyPipeline) {
+		copyPipeline.reset();
+		copyPipelinePool.release(copyPipeline);
 	}
 
 	/**
@@ -192,7 +792,10 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 	 */
 	@Override @SuppressWarnings("unchecked")
 	public void completed(final Integer n, final DataOperation<? extends DataItem> dataOp) {
-		Loggers.MSG.trace("{}: operation \"{}\" invocation completed with the result: {}", stepId, dataOp, n);
+		if (Loggers.MSG.isTraceEnabled()) {
+			Loggers.MSG.trace("{}: operation \"{}\" invocation completed with the result: {}", stepId, dataOp, n);
+		}
+		traceCompleted(dataOp, n);
 		final var newCountBytesDone = dataOp.countBytesDone() + n;
 		dataOp.countBytesDone(newCountBytesDone);
 		dataOp.item().position(newCountBytesDone); // TODO correct only for full create/full read
@@ -201,17 +804,15 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 
 	@Override @SuppressWarnings("unchecked")
 	public void failed(final Throwable thrown, final DataOperation<? extends DataItem> dataOp) {
-		try {
-			LogUtil.exception(Level.ERROR, thrown, "{}: data load operation \"{}\" failure", stepId, dataOp);
-			dataOp.status(FAIL_IO);
-			handleCompleted((O) dataOp);
-		} finally {
-			concurrencyThrottle.release();
-		}
+		LogUtil.exception(Level.ERROR, thrown, "{}: data load operation \"{}\" failure", stepId, dataOp);
+		dataOp.status(FAIL_IO);
+		finishOperation((O) dataOp, srcOpenChannels.get(dataOp), dstOpenChannels.get(dataOp));
 	}
 
 	protected void completeOperation(final O op, final AsyncChannel srcChannel, final AsyncChannel dstChannel) {
-		Loggers.MSG.trace("{}: operation \"{}\" completed", stepId, op);
+		if (Loggers.MSG.isTraceEnabled()) {
+			Loggers.MSG.trace("{}: operation \"{}\" completed", stepId, op);
+		}
 		try {
 			op.startResponse();
 			op.finishResponse();
@@ -221,32 +822,82 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 				Level.WARN, e, "{}: finishing the load operation which is in an invalid state", op.toString());
 			op.status(Operation.Status.FAIL_UNKNOWN);
 		} finally {
-			try {
-				handleCompleted(op);
-			} finally {
-				concurrencyThrottle.release();
+			finishOperation(op, srcChannel, dstChannel);
+		}
+	}
+
+	/**
+	 Finishes the batch of the operations which don't use any channels (like the deletes) keeping their statuses as is:
+	 passes them to the completion handling and releases the concurrency throttle at once.
+	 */
+	protected final void finishOperations(final List<O> ops) {
+		try {
+			for (final var op : ops) {
+				try {
+					handleCompleted(op);
+				} catch (final RuntimeException e) {
+					LogUtil.exception(Level.WARN, e, "{}: failed to handle the operation {} completion", stepId, op);
+				}
+			}
+		} finally {
+			concurrencyThrottle.release(ops.size());
+			if (tracer != null) {
+				for (final var op : ops) {
+					tracer.end(op);
+				}
+			}
+		}
+	}
+
+	/**
+	 Finishes the operation keeping its status as is: passes it to the completion handling, releases the concurrency
+	 throttle and closes the channels.
+	 */
+	protected final void finishOperation(final O op, final AsyncChannel srcChannel, final AsyncChannel dstChannel) {
+		try {
+			handleCompleted(op);
+		} finally {
+			concurrencyThrottle.release();
+			if (Loggers.MSG.isTraceEnabled()) {
 				Loggers.MSG.trace("{}: operation \"{}\" released the concurrency throttle", stepId, op);
-				if (srcChannel != null) {
-					srcOpenChannels.remove(op);
-					if (srcChannel.isOpen()) {
-						try {
-							srcChannel.close();
-						} catch (final IOException e) {
-							Loggers.ERR.warn("Failed to close the source file channel");
+			}
+			if (srcChannel != null) {
+				srcOpenChannels.remove(op);
+				if (srcChannel.isOpen()) {
+					final var startTime = metrics == null ? 0 : System.nanoTime();
+					try {
+						srcChannel.close();
+						if (startTime != 0) {
+							metrics.record(IoMetrics.Phase.CHANNEL_CLOSE, startTime);
 						}
+					} catch (final IOException e) {
+						Loggers.ERR.warn("Failed to close the source file channel");
+					}
+					if (tracer != null) {
+						tracer.event(op, OpTracer.EVENT_CLOSE, 0);
 					}
 				}
-				if (dstChannel != null) {
-					dstOpenChannels.remove(op);
-					if (dstChannel.isOpen()) {
-						try {
-							dstChannel.close();
-						} catch (final IOException e) {
-							Loggers.ERR.warn("Failed to close the destination file channel");
+			}
+			if (dstChannel != null) {
+				dstOpenChannels.remove(op);
+				if (dstChannel.isOpen()) {
+					final var startTime = metrics == null ? 0 : System.nanoTime();
+					try {
+						dstChannel.close();
+						if (startTime != 0) {
+							metrics.record(IoMetrics.Phase.CHANNEL_CLOSE, startTime);
 						}
+					} catch (final IOException e) {
+						Loggers.ERR.warn("Failed to close the destination file channel");
+					}
+					if (tracer != null) {
+						tracer.event(op, OpTracer.EVENT_CLOSE, 0);
 					}
 				}
 			}
+			if (tracer != null) {
+				tracer.end(op);
+			}
 		}
 	}
 
@@ -254,34 +905,45 @@ implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
 	protected void doClose()
 	throws IOException {
 
-		srcOpenChannels
-			.values()
-			.stream()
-			.filter(AsyncChannel::isOpen)
-			.forEach(
-				channel -> {
+		srcOpenChannels.forEach(
+			channel -> {
+				if (channel.isOpen()) {
 					try {
 						channel.close();
 					} catch (final IOException e) {
 						LogUtil.exception(Level.WARN, e, "Failed to close the source file channel {}", channel);
 					}
-				});
+				}
+			});
 		srcOpenChannels.clear();
 
-		dstOpenChannels
-			.values()
-			.stream()
-			.filter(AsyncChannel::isOpen)
-			.forEach(
-				channel -> {
+		dstOpenChannels.forEach(
+			channel -> {
+				if (channel.isOpen()) {
 					try {
 						channel.close();
 					} catch (final IOException e) {
-						LogUtil.exception(Level.WARN, e, "Failed to close the source file channel {}", channel);
+						LogUtil.exception(Level.WARN, e, "Failed to close the destination file channel {}", channel);
 					}
-				});
+				}
+			});
 		dstOpenChannels.clear();
 
+		ioBuffPools.clear();
+		readHandlerPool.clear();
+		copyPipelinePool.clear();
+		windowedCreatePool.clear();
+		segmentHandlerPool.clear();
+		rangesUpdatePool.clear();
+		rangeHandlerPool.clear();
+
+		if (metrics != null) {
+			metrics.close();
+		}
+		if (tracer != null) {
+			tracer.close();
+		}
+
 		super.doClose();
 	}
 }
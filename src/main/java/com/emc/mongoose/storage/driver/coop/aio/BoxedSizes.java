@@ -0,0 +1,26 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+/**
+ The cache of the boxed transfer sizes passed to the completion handlers. The transfer size is usually the I/O buffer
+ size or the item size, both are the powers of 2 in the most of the cases, so only these are cached in addition to the
+ small values cached by {@link Integer#valueOf(int)}.
+ */
+public interface BoxedSizes {
+
+	Integer[] POWERS_OF_2 = powersOf2();
+
+	private static Integer[] powersOf2() {
+		final var values = new Integer[Integer.SIZE - 1];
+		for (var i = 0; i < values.length; i ++) {
+			values[i] = 1 << i;
+		}
+		return values;
+	}
+
+	/**
+	 @return the boxed value, not allocated if the value is a positive power of 2
+	 */
+	static Integer valueOf(final int n) {
+		return n > 0 && (n & (n - 1)) == 0 ? POWERS_OF_2[Integer.numberOfTrailingZeros(n)] : Integer.valueOf(n);
+	}
+}
@@ -0,0 +1,77 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ The lock-free registry of the channels opened for the operations in flight. The channels are kept at the operations'
+ slots of the {@link IdentitySlots} table, so the lookups don't contend and don't allocate. This is correct because the
+ channel is registered, looked up and removed by the same operation's processing chain only. The channels which don't
+ fit the table (possible only if the concurrency is unlimited) are kept in the overflow map.
+ */
+final class ChannelSlots {
+
+	private final IdentitySlots slots;
+	private final AtomicReferenceArray<AsyncChannel> channels;
+	private final Map<Object, AsyncChannel> overflow = new ConcurrentHashMap<>();
+
+	/**
+	 @param expectedCount the expected max count of the operations in flight
+	 */
+	ChannelSlots(final int expectedCount) {
+		slots = new IdentitySlots(expectedCount);
+		channels = new AtomicReferenceArray<>(slots.capacity());
+	}
+
+	AsyncChannel get(final Object op) {
+		final var i = slots.indexOf(op);
+		if (i >= 0) {
+			return channels.get(i);
+		}
+		return overflow.isEmpty() ? null : overflow.get(op);
+	}
+
+	/**
+	 Should be invoked only if there's no channel registered for the operation
+	 */
+	void put(final Object op, final AsyncChannel channel) {
+		final var i = slots.claim(op);
+		if (i >= 0) {
+			channels.set(i, channel);
+		} else {
+			overflow.put(op, channel);
+		}
+	}
+
+	AsyncChannel remove(final Object op) {
+		final var i = slots.indexOf(op);
+		if (i >= 0) {
+			final var channel = channels.getAndSet(i, null);
+			slots.release(i);
+			return channel;
+		}
+		return overflow.isEmpty() ? null : overflow.remove(op);
+	}
+
+	void forEach(final Consumer<AsyncChannel> action) {
+		for (var i = 0; i < channels.length(); i ++) {
+			final var channel = channels.get(i);
+			if (channel != null) {
+				action.accept(channel);
+			}
+		}
+		overflow.values().forEach(action);
+	}
+
+	void clear() {
+		for (var i = 0; i < channels.length(); i ++) {
+			channels.set(i, null);
+		}
+		slots.clear();
+		overflow.clear();
+	}
+}
@@ -1,39 +1,75 @@
 package com.emc.mongoose.storage.driver.coop.aio;
 
 import com.emc.mongoose.base.item.DataItem;
-import com.emc.mongoose.base.item.io.AsyncChannel;
 import com.emc.mongoose.base.item.op.data.DataOperation;
 
 import java.nio.ByteBuffer;
 import java.nio.channels.CompletionHandler;
 
-public final class CopyCompletionHandler<O extends DataOperation<? extends DataItem>>
-implements CompletionHandler<Integer, O> {
-
-	private final AsyncChannel dstChan;
-	private final ByteBuffer buff;
-	private final long countBytesDone;
-	private final O dataOp;
-	private final CompletionHandler<Integer, O> opCompletionHandler;
-
-	public CopyCompletionHandler(
-		final AsyncChannel dstChan, final ByteBuffer buff, final long countBytesDone, final O dataOp,
-		final CompletionHandler<Integer, O> opCompletionHandler
-	) {
-		this.dstChan = dstChan;
-		this.buff = buff;
-		this.countBytesDone = countBytesDone;
-		this.dataOp = dataOp;
-		this.opCompletionHandler = opCompletionHandler;
+/**
+ The stage of the copy pipeline owning the single buffer. The stage reads the chunk from the source channel into its
+ buffer and then writes the buffer content to the destination channel at the same position, then the stage is reused
+ for the next chunk and, together with its pipeline, for the next copy operation.
+ */
+public final class CopyCompletionHandler
+implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
+
+	private final CopyPipeline pipeline;
+	ByteBuffer buff;
+	private long pos;
+	private boolean writeFlag;
+	private long startTime;
+
+	CopyCompletionHandler(final CopyPipeline pipeline) {
+		this.pipeline = pipeline;
+	}
+
+	long position() {
+		return pos;
+	}
+
+	void position(final long pos) {
+		this.pos = pos;
+	}
+
+	/**
+	 Reads the next chunk from the current position
+	 */
+	void read(final long countBytesRemaining) {
+		writeFlag = false;
+		buff.clear();
+		if (countBytesRemaining < buff.capacity()) {
+			buff.limit((int) countBytesRemaining);
+		}
+		startTime = pipeline.driver.ioStartTime();
+		pipeline.srcChan.read(buff, pos, pipeline.dataOp, this);
+	}
+
+	void write() {
+		writeFlag = true;
+		startTime = pipeline.driver.ioStartTime();
+		pipeline.dstChan.write(buff, pos, pipeline.dataOp, this);
 	}
 
 	@Override
-	public void completed(final Integer result, final O attachment) {
-		dstChan.write(buff, countBytesDone, dataOp, this);
+	public void completed(final Integer n, final DataOperation<? extends DataItem> dataOp) {
+		pipeline.driver.traceCompleted(dataOp, n);
+		if (writeFlag) {
+			pos += n;
+			if (buff.hasRemaining()) { // short write, write the remaining content
+				pipeline.dstChan.write(buff, pos, dataOp, this);
+			} else {
+				pipeline.driver.ioDone(startTime);
+				pipeline.writeCompleted(this);
+			}
+		} else {
+			pipeline.driver.ioDone(startTime);
+			pipeline.readCompleted(this, n);
+		}
 	}
 
 	@Override
-	public void failed(final Throwable exc, final O attachment) {
-		opCompletionHandler.failed(exc, attachment);
+	public void failed(final Throwable exc, final DataOperation<? extends DataItem> dataOp) {
+		pipeline.failed(this, exc);
 	}
 }
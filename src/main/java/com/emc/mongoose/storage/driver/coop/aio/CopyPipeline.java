@@ -0,0 +1,215 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+
+/**
+ The double buffered copy: the next chunk is read while the previous one is being written. There's at most one read
+ and one write in flight. The stage states are changed under the lock while the I/O is invoked outside it because the
+ completion handler may be invoked by the invoking thread. The pipeline with its stages is reused for the next copy
+ operation after the successful completion or, if the copy has failed, after the last I/O in flight is done.
+ */
+final class CopyPipeline {
+
+	final AioStorageDriverBase<?, ?> driver;
+	private final CopyCompletionHandler stage1;
+	private final CopyCompletionHandler stage2;
+	DataOperation<? extends DataItem> dataOp;
+	AsyncChannel srcChan;
+	AsyncChannel dstChan;
+	private long contentSize;
+
+	private long readPos;
+	private CopyCompletionHandler readingStage = null;
+	private CopyCompletionHandler readyStage = null;
+	private CopyCompletionHandler writingStage = null;
+	private CopyCompletionHandler freeStage = null;
+	private boolean failedFlag = false;
+
+	CopyPipeline(final AioStorageDriverBase<?, ?> driver) {
+		this.driver = driver;
+		this.stage1 = new CopyCompletionHandler(this);
+		this.stage2 = new CopyCompletionHandler(this);
+	}
+
+	/**
+	 @param buff1 the buffer for the first stage
+	 @param buff2 the buffer for the second stage, may be null if the buffer pool is exhausted, the copy is performed
+	 without the read/write overlapping then
+	 */
+	void start(
+		final DataOperation<? extends DataItem> dataOp, final AsyncChannel srcChan, final AsyncChannel dstChan,
+		final long countBytesDone, final long contentSize, final ByteBuffer buff1, final ByteBuffer buff2
+	) {
+		synchronized (this) {
+			this.dataOp = dataOp;
+			this.srcChan = srcChan;
+			this.dstChan = dstChan;
+			this.readPos = countBytesDone;
+			this.contentSize = contentSize;
+			this.failedFlag = false;
+			stage1.buff = buff1;
+			if (buff2 != null) {
+				stage2.buff = buff2;
+				freeStage = stage2;
+			}
+			readingStage = stage1;
+			stage1.position(readPos);
+		}
+		stage1.read(contentSize - readPos);
+	}
+
+	/**
+	 Should be invoked only when there's no I/O in flight
+	 */
+	synchronized void reset() {
+		dataOp = null;
+		srcChan = null;
+		dstChan = null;
+		stage1.buff = null;
+		stage2.buff = null;
+		readingStage = null;
+		readyStage = null;
+		writingStage = null;
+		freeStage = null;
+	}
+
+	void readCompleted(final CopyCompletionHandler stage, final int n) {
+		if (n < 0) {
+			failed(stage, new EOFException("Unexpected end of the source @ " + readPos + ", expected: " + contentSize));
+			return;
+		}
+		final CopyCompletionHandler nextWriteStage;
+		final CopyCompletionHandler nextReadStage;
+		synchronized (this) {
+			if (failedFlag) {
+				if (ioDoneAfterFailure(stage)) {
+					driver.copyAborted(this);
+				}
+				return;
+			}
+			readingStage = null;
+			readPos += n;
+			stage.buff.flip();
+			if (writingStage == null) {
+				writingStage = stage;
+				nextWriteStage = stage;
+			} else {
+				readyStage = stage;
+				nextWriteStage = null;
+			}
+			nextReadStage = nextReadStage();
+		}
+		if (nextWriteStage != null) {
+			nextWriteStage.write();
+		}
+		if (nextReadStage != null) {
+			nextReadStage.read(contentSize - nextReadStage.position());
+		}
+	}
+
+	void writeCompleted(final CopyCompletionHandler stage) {
+		final var countBytesDone = stage.position();
+		final CopyCompletionHandler nextWriteStage;
+		final CopyCompletionHandler nextReadStage;
+		synchronized (this) {
+			if (failedFlag) {
+				if (ioDoneAfterFailure(stage)) {
+					driver.copyAborted(this);
+				}
+				return;
+			}
+			dataOp.countBytesDone(countBytesDone);
+			writingStage = null;
+			if (countBytesDone < contentSize) {
+				freeStage = stage;
+				if (readyStage != null) {
+					writingStage = readyStage;
+					readyStage = null;
+				}
+				nextWriteStage = writingStage;
+				nextReadStage = nextReadStage();
+			} else {
+				nextWriteStage = null;
+				nextReadStage = null;
+				driver.ioBuffPools.release(stage.buff);
+				if (freeStage != null) {
+					driver.ioBuffPools.release(freeStage.buff);
+					freeStage = null;
+				}
+			}
+		}
+		if (countBytesDone < contentSize) {
+			if (nextWriteStage != null) {
+				nextWriteStage.write();
+			}
+			if (nextReadStage != null) {
+				nextReadStage.read(contentSize - nextReadStage.position());
+			}
+		} else {
+			driver.copyCompleted(this);
+		}
+	}
+
+	/**
+	 Should be invoked under the lock
+	 @return the free stage to read the next chunk into or null
+	 */
+	private CopyCompletionHandler nextReadStage() {
+		if (readingStage == null && freeStage != null && readPos < contentSize) {
+			readingStage = freeStage;
+			freeStage = null;
+			readingStage.position(readPos);
+			return readingStage;
+		}
+		return null;
+	}
+
+	/**
+	 Should be invoked under the lock after the failure for the stage which I/O is done
+	 @return true if there's no more I/O in flight, so the pipeline may be reused
+	 */
+	private boolean ioDoneAfterFailure(final CopyCompletionHandler stage) {
+		driver.ioBuffPools.release(stage.buff);
+		stage.buff = null;
+		if (readingStage == stage) {
+			readingStage = null;
+		} else if (writingStage == stage) {
+			writingStage = null;
+		}
+		return readingStage == null && writingStage == null;
+	}
+
+	void failed(final CopyCompletionHandler stage, final Throwable exc) {
+		final DataOperation<? extends DataItem> dataOp;
+		final boolean firstFailure;
+		final boolean ioDoneFlag;
+		synchronized (this) {
+			dataOp = this.dataOp;
+			firstFailure = !failedFlag;
+			failedFlag = true;
+			// release the buffers which are not used by any I/O in flight
+			if (freeStage != null) {
+				driver.ioBuffPools.release(freeStage.buff);
+				freeStage.buff = null;
+				freeStage = null;
+			}
+			if (readyStage != null) {
+				driver.ioBuffPools.release(readyStage.buff);
+				readyStage.buff = null;
+				readyStage = null;
+			}
+			ioDoneFlag = ioDoneAfterFailure(stage);
+		}
+		if (firstFailure) {
+			driver.failed(exc, dataOp);
+		}
+		if (ioDoneFlag) {
+			driver.copyAborted(this);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ The pool of the reusable direct buffers of the same fixed size. Never blocks: a new buffer is allocated if the pool is
+ empty and the released buffer is dropped (left for GC) if the pool is full. The count of the buffers leased at the
+ same time is limited only for the optional leases (see {@link #tryLease()}). The buffers may be aligned in the memory
+ as required by the direct I/O.
+ */
+public final class DirectBufferPool {
+
+	private final int buffSize;
+	private final int leasedCountLimit;
+	private final int alignment;
+	private final Queue<ByteBuffer> buffs;
+	private final AtomicInteger leasedCount = new AtomicInteger(0);
+
+	/**
+	 @param buffSize the size of each buffer
+	 @param capacity the max count of the buffers kept in the pool
+	 @param leasedCountLimit the max count of the buffers leased at the same time using {@link #tryLease()}
+	 @param alignment the buffers memory address alignment, should be the power of 2, the buffer size should be a
+	 multiple of it
+	 */
+	public DirectBufferPool(final int buffSize, final int capacity, final int leasedCountLimit, final int alignment) {
+		this.buffSize = buffSize;
+		this.leasedCountLimit = leasedCountLimit;
+		this.alignment = alignment;
+		this.buffs = new ArrayBlockingQueue<>(capacity);
+	}
+
+	public DirectBufferPool(final int buffSize, final int capacity, final int leasedCountLimit) {
+		this(buffSize, capacity, leasedCountLimit, 1);
+	}
+
+	private ByteBuffer allocate() {
+		if (alignment > 1) {
+			return ByteBuffer
+				.allocateDirect(buffSize + alignment - 1)
+				.alignedSlice(alignment)
+				.limit(buffSize)
+				.slice();
+		}
+		return ByteBuffer.allocateDirect(buffSize);
+	}
+
+	public int alignment() {
+		return alignment;
+	}
+
+	public int buffSize() {
+		return buffSize;
+	}
+
+	/**
+	 @return the cleared buffer which should be returned back using {@link #release(ByteBuffer)} after the use
+	 */
+	public ByteBuffer lease() {
+		leasedCount.incrementAndGet();
+		final var buff = buffs.poll();
+		if (buff == null) {
+			return allocate();
+		}
+		buff.clear();
+		return buff;
+	}
+
+	/**
+	 Leases the buffer only if the leased buffers count limit is not reached. Should be used to get the buffers which
+	 are not necessary to make the progress (for the I/O overlapping, for example).
+	 @return the cleared buffer or null if the limit is reached
+	 */
+	public ByteBuffer tryLease() {
+		int n;
+		do {
+			n = leasedCount.get();
+			if (n >= leasedCountLimit) {
+				return null;
+			}
+		} while (!leasedCount.compareAndSet(n, n + 1));
+		final var buff = buffs.poll();
+		if (buff == null) {
+			return allocate();
+		}
+		buff.clear();
+		return buff;
+	}
+
+	public void release(final ByteBuffer buff) {
+		leasedCount.decrementAndGet();
+		buffs.offer(buff);
+	}
+
+	public int leasedCount() {
+		return leasedCount.get();
+	}
+
+	public void clear() {
+		buffs.clear();
+	}
+}
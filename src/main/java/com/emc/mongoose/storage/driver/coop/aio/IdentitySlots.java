@@ -0,0 +1,87 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ The lock-free open addressing table of the object identities (the operations in flight). The table is indexed by the
+ identity hash and sized to the expected count of the objects, so the lookups don't contend and don't allocate. The
+ users keep the values in their own arrays at the slot indices.
+ The released slots are simply cleared (no tombstones), so the lookup scans the probe window limited by the max probe
+ distance ever reached instead of stopping at the first empty slot. This is correct while the slot is claimed, looked
+ up and released by the same object's processing chain only.
+ */
+final class IdentitySlots {
+
+	private static final int CAPACITY_MAX = 0x40_00_00;
+
+	private final int mask;
+	private final AtomicReferenceArray<Object> keys;
+	private final AtomicInteger maxProbe = new AtomicInteger(0);
+
+	/**
+	 @param expectedCount the expected max count of the objects in the table
+	 */
+	IdentitySlots(final int expectedCount) {
+		// keep the load factor not more than 0.5 to keep the probe distances short
+		final var capacity = Math.min(Integer.highestOneBit(Math.max(expectedCount, 1)) << 2, CAPACITY_MAX);
+		mask = capacity - 1;
+		keys = new AtomicReferenceArray<>(capacity);
+	}
+
+	/**
+	 @return the count of the slots, the power of 2
+	 */
+	int capacity() {
+		return mask + 1;
+	}
+
+	private int home(final Object key) {
+		final var h = System.identityHashCode(key) * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 @return the slot index of the object, -1 if the object is not in the table
+	 */
+	int indexOf(final Object key) {
+		final var h = home(key);
+		final var n = maxProbe.get();
+		for (var d = 0; d <= n; d ++) {
+			final var i = (h + d) & mask;
+			if (keys.get(i) == key) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 Claims the free slot for the object. Should be invoked only if the object is not in the table.
+	 @return the claimed slot index, -1 if the table is full
+	 */
+	int claim(final Object key) {
+		final var h = home(key);
+		for (var d = 0; d <= mask; d ++) {
+			final var i = (h + d) & mask;
+			if (keys.get(i) == null && keys.compareAndSet(i, null, key)) {
+				int n;
+				do {
+					n = maxProbe.get();
+				} while (d > n && !maxProbe.compareAndSet(n, d));
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	void release(final int i) {
+		keys.set(i, null);
+	}
+
+	void clear() {
+		for (var i = 0; i <= mask; i ++) {
+			keys.set(i, null);
+		}
+	}
+}
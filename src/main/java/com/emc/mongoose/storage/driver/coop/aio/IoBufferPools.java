@@ -0,0 +1,74 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import java.nio.ByteBuffer;
+
+/**
+ The pools of the direct buffers of the power of 2 size classes from the min to the max buffer size. The buffer is
+ leased from the pool of the smallest size class fitting the requested size and is released back to the pool of its
+ size class. The pools of the bigger size classes keep proportionally less buffers so the memory kept by each pool is
+ limited by the memory kept by the pool of the default I/O chunk size.
+ */
+final class IoBufferPools {
+
+	private final int sizeMinShift;
+	private final DirectBufferPool[] pools;
+
+	/**
+	 @param sizeMin the min buffer size, should be the power of 2
+	 @param sizeMax the max buffer size, should be the power of 2 not less than the min buffer size
+	 @param capacity the max count of the buffers kept by the pool of the default I/O chunk size or smaller
+	 @param alignment the buffers memory address alignment, should be the power of 2, the smaller buffers are aligned
+	 to their size
+	 */
+	IoBufferPools(final int sizeMin, final int sizeMax, final int capacity, final int alignment) {
+		sizeMinShift = Integer.numberOfTrailingZeros(sizeMin);
+		final var poolCount = Integer.numberOfTrailingZeros(sizeMax) - sizeMinShift + 1;
+		pools = new DirectBufferPool[poolCount];
+		final var memLimit = (long) capacity * AioStorageDriverBase.IO_CHUNK_SIZE;
+		for (var i = 0; i < poolCount; i ++) {
+			final var buffSize = sizeMin << i;
+			final var poolCapacity = (int) Math.max(1, Math.min(capacity, memLimit / buffSize));
+			// 2 buffers per operation at most (the copy pipeline)
+			pools[i] = new DirectBufferPool(buffSize, poolCapacity, 2 * poolCapacity, Math.min(alignment, buffSize));
+		}
+	}
+
+	/**
+	 @return the power of 2 not less than the given positive value
+	 */
+	static int ceilPowerOf2(final int n) {
+		return n > 1 ? Integer.highestOneBit(n - 1) << 1 : 1;
+	}
+
+	private DirectBufferPool pool(final int size) {
+		final var i = Integer.numberOfTrailingZeros(ceilPowerOf2(size)) - sizeMinShift;
+		return pools[Math.max(0, Math.min(pools.length - 1, i))];
+	}
+
+	/**
+	 @param size the requested size, the buffer capacity may be bigger (up to the next power of 2 or the min size) or
+	 smaller (the max size)
+	 @return the cleared buffer which should be returned back using {@link #release(ByteBuffer)} after the use
+	 */
+	ByteBuffer lease(final int size) {
+		return pool(size).lease();
+	}
+
+	/**
+	 @return the cleared buffer or null if the leased buffers count limit of the size class is reached
+	 @see DirectBufferPool#tryLease()
+	 */
+	ByteBuffer tryLease(final int size) {
+		return pool(size).tryLease();
+	}
+
+	void release(final ByteBuffer buff) {
+		pool(buff.capacity()).release(buff);
+	}
+
+	void clear() {
+		for (final var pool : pools) {
+			pool.clear();
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.config.IllegalConfigurationException;
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
+import com.emc.mongoose.base.logging.Loggers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ The fixed size thread pool executing the asynchronous channels I/O and the completion handlers. Tracks the task queue
+ depth and, if the metrics are enabled, the time the tasks spend in the queue (the tasks are wrapped into the pooled
+ wrappers holding the submit time). The array based task queue is used so nothing is allocated per task. The queue
+ depth is limited by the count of the I/Os in flight which is limited by the concurrency, so the queue capacity is not
+ expected to be exhausted, the submitting thread blocks until there's a free space otherwise. The queue depth is
+ exported via the metrics MBean if the metrics are enabled. The threads may be pinned to the given CPUs (Linux only,
+ the availability is checked once on the executor creation).
+ */
+public final class IoExecutor
+extends ThreadPoolExecutor {
+
+	private static final int QUEUE_CAPACITY = 0x1_00_00;
+	private static final int QUEUED_TASK_POOL_CAPACITY = QUEUE_CAPACITY;
+
+	private final AtomicInteger maxQueueDepth = new AtomicInteger(0);
+	private final IoMetrics metrics;
+	private final ObjectPool<QueuedTask> queuedTaskPool;
+
+	/**
+	 @param name the thread name prefix
+	 @param threadCount the count of the threads
+	 @param cpuList the CPU list in the taskset format (like "0-3,8-11") to pin the threads to, null or empty means no
+	 pinning
+	 @param metrics the metrics to record the task queue time and to export the queue depth into, may be null
+	 @throws IllegalConfigurationException if the threads can't be pinned to the given CPUs
+	 */
+	public IoExecutor(final String name, final int threadCount, final String cpuList, final IoMetrics metrics)
+	throws IllegalConfigurationException {
+		super(
+			threadCount, threadCount, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+			threadFactory(name, cpuList), IoExecutor::enqueueBlocking
+		);
+		this.metrics = metrics;
+		queuedTaskPool = metrics == null ? null : new ObjectPool<>(QUEUED_TASK_POOL_CAPACITY, this::newQueuedTask);
+		if (metrics != null) {
+			metrics.executor(this);
+		}
+	}
+
+	private QueuedTask newQueuedTask() {
+		return new QueuedTask(metrics, queuedTaskPool);
+	}
+
+	public IoExecutor(final String name, final int threadCount, final String cpuList)
+	throws IllegalConfigurationException {
+		this(name, threadCount, cpuList, null);
+	}
+
+	private static ThreadFactory threadFactory(final String name, final String cpuList)
+	throws IllegalConfigurationException {
+		final var threadFactory = new LogContextThreadFactory(name, true);
+		if (cpuList == null || cpuList.isEmpty()) {
+			return threadFactory;
+		}
+		checkPinning(cpuList);
+		return task -> threadFactory.newThread(
+			() -> {
+				pinCurrentThread(cpuList);
+				task.run();
+			}
+		);
+	}
+
+	/**
+	 Checks that the threads may be pinned to the given CPUs: the native thread id may be resolved using the procfs and
+	 the taskset utility accepts the CPU list (the short living process is started using the given CPUs).
+	 @throws IllegalConfigurationException if the pinning is not available or the CPU list is invalid
+	 */
+	static void checkPinning(final String cpuList)
+	throws IllegalConfigurationException {
+		try {
+			Files.readSymbolicLink(Paths.get("/proc/thread-self"));
+			final var process = new ProcessBuilder("taskset", "-c", cpuList, "true")
+				.redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.start();
+			final var exitCode = process.waitFor();
+			if (exitCode != 0) {
+				throw new IllegalConfigurationException(
+					"Failed to pin the I/O threads to the CPUs \"" + cpuList + "\", taskset exit code: " + exitCode
+				);
+			}
+		} catch (final IOException | UnsupportedOperationException e) {
+			throw new IllegalConfigurationException(
+				"The I/O threads pinning to the CPUs \"" + cpuList + "\" is not available (requires Linux and the "
+					+ "taskset utility): " + e
+			);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalConfigurationException("Interrupted while checking the I/O threads pinning");
+		}
+	}
+
+	/**
+	 Pins the current thread to the given CPUs using the taskset utility. The native thread id is resolved using the
+	 procfs, so works on Linux only. The availability should be checked before via {@link #checkPinning(String)}, so
+	 the failure here is not expected.
+	 */
+	static void pinCurrentThread(final String cpuList) {
+		try {
+			final var threadSelfPath = Files.readSymbolicLink(Paths.get("/proc/thread-self"));
+			final var tid = threadSelfPath.getFileName().toString();
+			final var process = new ProcessBuilder("taskset", "-p", "-c", cpuList, tid)
+				.redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.start();
+			final var exitCode = process.waitFor();
+			if (exitCode != 0) {
+				Loggers.ERR.error(
+					"Failed to pin the thread \"{}\" to the CPUs \"{}\", taskset exit code: {}",
+					Thread.currentThread().getName(), cpuList, exitCode
+				);
+			}
+		} catch (final IOException | UnsupportedOperationException e) {
+			Loggers.ERR.error(
+				"Failed to pin the thread \"{}\" to the CPUs \"{}\": {}", Thread.currentThread().getName(), cpuList,
+				e.toString()
+			);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 The rejected execution handler waiting for the free space in the queue
+	 */
+	private static void enqueueBlocking(final Runnable task, final ThreadPoolExecutor executor) {
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("The executor is shut down");
+		}
+		try {
+			executor.getQueue().put(task);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException(e);
+		}
+	}
+
+	@Override
+	public void execute(final Runnable task) {
+		if (metrics == null) {
+			super.execute(task);
+		} else {
+			final var queuedTask = queuedTaskPool.lease();
+			queuedTask.init(task);
+			try {
+				super.execute(queuedTask);
+			} catch (final RejectedExecutionException e) {
+				queuedTask.init(null);
+				queuedTaskPool.release(queuedTask);
+				throw e;
+			}
+		}
+		final var queueDepth = getQueue().size();
+		int prevMaxQueueDepth;
+		while (queueDepth > (prevMaxQueueDepth = maxQueueDepth.get())) {
+			if (maxQueueDepth.compareAndSet(prevMaxQueueDepth, queueDepth)) {
+				break;
+			}
+		}
+	}
+
+	public int queueDepth() {
+		return getQueue().size();
+	}
+
+	public int maxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	@Override
+	protected void terminated() {
+		if (queuedTaskPool != null) {
+			queuedTaskPool.clear();
+		}
+	}
+
+	/**
+	 The reusable task wrapper recording the time the task spent in the queue, returns itself back to the pool before
+	 running the task
+	 */
+	private static final class QueuedTask
+	implements Runnable {
+
+		private final IoMetrics metrics;
+		private final ObjectPool<QueuedTask> pool;
+		private Runnable task;
+		private long submitTime;
+
+		QueuedTask(final IoMetrics metrics, final ObjectPool<QueuedTask> pool) {
+			this.metrics = metrics;
+			this.pool = pool;
+		}
+
+		void init(final Runnable task) {
+			this.task = task;
+			submitTime = System.nanoTime();
+		}
+
+		@Override
+		public void run() {
+			final var task = this.task;
+			metrics.record(IoMetrics.Phase.EXECUTOR_QUEUE, submitTime);
+			this.task = null;
+			pool.release(this);
+			task.run();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "threads: " + getPoolSize() + ", active: " + getActiveCount() + ", queue depth: " + queueDepth()
+			+ ", max queue depth: " + maxQueueDepth() + ", tasks completed: " + getCompletedTaskCount();
+	}
+}
@@ -0,0 +1,197 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
+import com.emc.mongoose.base.logging.LogUtil;
+import com.emc.mongoose.base.logging.Loggers;
+
+import org.apache.logging.log4j.Level;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ The durations of the driver I/O phases. Each thread records into its own single writer HDR histograms, so the
+ recording is wait-free and doesn't contend. The histograms are sampled periodically: the interval values are logged
+ and added to the total ones exposed via JMX. The I/O executor queue depth is exposed and logged too.
+ */
+public final class IoMetrics
+implements IoMetricsMXBean, AutoCloseable {
+
+	public enum Phase {
+		/** The time while the concurrency throttle had no permits for the new operations */
+		THROTTLE_WAIT,
+		/** The channel open */
+		CHANNEL_OPEN,
+		/** The time the I/O task spent in the executor queue */
+		EXECUTOR_QUEUE,
+		/** The single chunk I/O from the invocation to the completion */
+		CHUNK_IO,
+		/** The channel close */
+		CHANNEL_CLOSE,
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final String stepId;
+	private final List<SingleWriterRecorder[]> threadRecorders = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<SingleWriterRecorder[]> recorders = ThreadLocal.withInitial(this::newThreadRecorders);
+	private final Histogram[] intervalHistograms = new Histogram[PHASES.length]; // guarded by this
+	private final Histogram[] totalHistograms = new Histogram[PHASES.length]; // guarded by this
+	private final ScheduledExecutorService sampler;
+	private final ObjectName mBeanName;
+	private volatile IoExecutor executor = null;
+
+	/**
+	 @param stepId the load step id
+	 @param period the sampling and the logging period in seconds
+	 */
+	public IoMetrics(final String stepId, final int period) {
+		this.stepId = stepId;
+		for (var i = 0; i < PHASES.length; i ++) {
+			intervalHistograms[i] = new Histogram(SIGNIFICANT_DIGITS);
+			totalHistograms[i] = new Histogram(SIGNIFICANT_DIGITS);
+		}
+		sampler = Executors.newSingleThreadScheduledExecutor(new LogContextThreadFactory(stepId + "-metrics", true));
+		sampler.scheduleAtFixedRate(this::sampleAndLog, period, period, TimeUnit.SECONDS);
+		ObjectName name = null;
+		try {
+			name = new ObjectName(getClass().getPackageName() + ":type=IoMetrics,name=" + ObjectName.quote(stepId));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		} catch (final JMException e) {
+			LogUtil.exception(Level.WARN, e, "{}: failed to register the I/O metrics MBean", stepId);
+			name = null;
+		}
+		mBeanName = name;
+	}
+
+	/**
+	 Sets the I/O executor to export the queue depth of
+	 */
+	void executor(final IoExecutor executor) {
+		this.executor = executor;
+	}
+
+	private SingleWriterRecorder[] newThreadRecorders() {
+		final var threadRecorders = new SingleWriterRecorder[PHASES.length];
+		for (var i = 0; i < PHASES.length; i ++) {
+			threadRecorders[i] = new SingleWriterRecorder(SIGNIFICANT_DIGITS);
+		}
+		this.threadRecorders.add(threadRecorders);
+		return threadRecorders;
+	}
+
+	/**
+	 Records the duration from the given start time (nanoseconds, {@link System#nanoTime()}) till now
+	 */
+	public void record(final Phase phase, final long startTime) {
+		recordDuration(phase, System.nanoTime() - startTime);
+	}
+
+	/**
+	 @param duration the duration in nanoseconds
+	 */
+	public void recordDuration(final Phase phase, final long duration) {
+		if (duration > 0) {
+			recorders.get()[phase.ordinal()].recordValue(duration);
+		}
+	}
+
+	private synchronized void sample() {
+		for (final var histogram : intervalHistograms) {
+			histogram.reset();
+		}
+		for (final var threadRecorders : this.threadRecorders) {
+			for (var i = 0; i < PHASES.length; i ++) {
+				final var histogram = threadRecorders[i].getIntervalHistogram();
+				intervalHistograms[i].add(histogram);
+				totalHistograms[i].add(histogram);
+			}
+		}
+	}
+
+	private synchronized void sampleAndLog() {
+		sample();
+		for (var i = 0; i < PHASES.length; i ++) {
+			final var histogram = intervalHistograms[i];
+			if (histogram.getTotalCount() > 0) {
+				Loggers.MSG.info(
+					"{}: {} (us): count={}, mean={}, p50={}, p99={}, p99.9={}, max={}", stepId, PHASES[i],
+					histogram.getTotalCount(), String.format("%.1f", histogram.getMean() / 1_000),
+					histogram.getValueAtPercentile(50) / 1_000, histogram.getValueAtPercentile(99) / 1_000,
+					histogram.getValueAtPercentile(99.9) / 1_000, histogram.getMaxValue() / 1_000
+				);
+			}
+		}
+		final var executor = this.executor;
+		if (executor != null) {
+			Loggers.MSG.info(
+				"{}: I/O executor queue depth: {}, max: {}", stepId, executor.queueDepth(), executor.maxQueueDepth()
+			);
+		}
+	}
+
+	private Histogram totalHistogram(final String phase) {
+		return totalHistograms[Phase.valueOf(phase).ordinal()];
+	}
+
+	@Override
+	public String[] getPhases() {
+		return Arrays.stream(PHASES).map(Phase::name).toArray(String[]::new);
+	}
+
+	@Override
+	public synchronized long getCount(final String phase) {
+		return totalHistogram(phase).getTotalCount();
+	}
+
+	@Override
+	public synchronized double getMean(final String phase) {
+		return totalHistogram(phase).getMean() / 1_000;
+	}
+
+	@Override
+	public synchronized long getValueAtPercentile(final String phase, final double percentile) {
+		return totalHistogram(phase).getValueAtPercentile(percentile) / 1_000;
+	}
+
+	@Override
+	public synchronized long getMax(final String phase) {
+		return totalHistogram(phase).getMaxValue() / 1_000;
+	}
+
+	@Override
+	public int getExecutorQueueDepth() {
+		final var executor = this.executor;
+		return executor == null ? 0 : executor.queueDepth();
+	}
+
+	@Override
+	public int getExecutorMaxQueueDepth() {
+		final var executor = this.executor;
+		return executor == null ? 0 : executor.maxQueueDepth();
+	}
+
+	@Override
+	public void close() {
+		sampler.shutdownNow();
+		sampleAndLog();
+		if (mBeanName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+			} catch (final JMException e) {
+				LogUtil.exception(Level.DEBUG, e, "{}: failed to unregister the I/O metrics MBean", stepId);
+			}
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+/**
+ The driver I/O phases metrics accumulated since the driver start and the I/O executor queue depth. The durations are
+ in microseconds.
+ */
+public interface IoMetricsMXBean {
+
+	String[] getPhases();
+
+	long getCount(final String phase);
+
+	double getMean(final String phase);
+
+	long getValueAtPercentile(final String phase, final double percentile);
+
+	long getMax(final String phase);
+
+	/**
+	 @return the current count of the tasks in the I/O executor queue, 0 if there's no I/O executor
+	 */
+	int getExecutorQueueDepth();
+
+	/**
+	 @return the max count of the tasks in the I/O executor queue since the driver start, 0 if there's no I/O executor
+	 */
+	int getExecutorMaxQueueDepth();
+}
@@ -0,0 +1,29 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+
+/**
+ The item slices reuse. The slice content is defined by the data input, the offset, the layer and the size only, so
+ the slice of the previous item may be reconfigured to be the slice of the next one instead of the allocation.
+ */
+interface ItemSlices {
+
+	/**
+	 @param slice the slice to reuse, may be null
+	 @param item the item to slice
+	 @param from the slice start position in the item
+	 @param size the slice size
+	 @return the given slice reconfigured or the new slice if null is given
+	 */
+	static DataItem slice(final DataItem slice, final DataItem item, final long from, final long size) {
+		if (slice == null) {
+			return item.slice(from, size);
+		}
+		slice.dataInput(item.dataInput());
+		slice.offset(item.offset() + from);
+		slice.layer(item.layer());
+		slice.size(size);
+		slice.position(0);
+		return slice;
+	}
+}
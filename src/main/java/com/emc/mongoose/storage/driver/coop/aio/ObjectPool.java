@@ -0,0 +1,34 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ The pool of the reusable objects (completion handlers, pipelines) to avoid the allocation per operation. Never blocks:
+ a new object is created if the pool is empty and the released object is dropped if the pool is full. The array based
+ queue is used because it doesn't allocate anything on the offer unlike the linked ones.
+ */
+public final class ObjectPool<T> {
+
+	private final Queue<T> objs;
+	private final Supplier<T> factory;
+
+	public ObjectPool(final int capacity, final Supplier<T> factory) {
+		this.objs = new ArrayBlockingQueue<>(capacity);
+		this.factory = factory;
+	}
+
+	public T lease() {
+		final var obj = objs.poll();
+		return obj == null ? factory.get() : obj;
+	}
+
+	public void release(final T obj) {
+		objs.offer(obj);
+	}
+
+	public void clear() {
+		objs.clear();
+	}
+}
@@ -0,0 +1,257 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.Operation;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
+import com.emc.mongoose.base.logging.LogUtil;
+import com.emc.mongoose.base.logging.Loggers;
+
+import org.apache.logging.log4j.Level;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ The slow operations tracer. Each operation in flight claims the next record of the fixed size off-heap ring buffer
+ and appends the timestamped events (submit, channel open, each I/O completion, channel close, finish) to it. When
+ the operation finishes its record is dumped to the trace file (asynchronously) if the operation took longer than the
+ threshold, the record is abandoned otherwise. The record sequence numbers are kept at the operations' slots of the
+ {@link IdentitySlots} table, so the tracing doesn't allocate on the hot path. If the ring buffer wraps around before
+ the operation finishes (too many operations in flight for the given capacity) or the table is full, the operation is
+ not traced.
+ */
+public final class OpTracer
+implements AutoCloseable {
+
+	public static final int EVENT_SUBMIT = 0;
+	public static final int EVENT_OPEN = 1;
+	public static final int EVENT_COMPLETED = 2;
+	public static final int EVENT_CLOSE = 3;
+	public static final int EVENT_FINISH = 4;
+	private static final String[] EVENT_NAMES = { "submit", "open", "completed", "close", "finish", };
+
+	// record layout
+	private static final int RECORD_SIZE = 0x2_00;
+	private static final int OFFSET_SEQ = 0;
+	private static final int OFFSET_OP_TYPE = 8;
+	private static final int OFFSET_EVENT_COUNT = 12;
+	private static final int OFFSET_ITEM_OFFSET = 16;
+	private static final int OFFSET_NAME_LENGTH = 24;
+	private static final int OFFSET_NAME = 28;
+	private static final int NAME_LENGTH_MAX = 64;
+	private static final int OFFSET_EVENTS = OFFSET_NAME + NAME_LENGTH_MAX + 4; // 96, 8 bytes aligned
+	private static final int EVENT_SIZE = 16; // timestamp (long), event type (int), count of bytes (int)
+	private static final int EVENTS_MAX = (RECORD_SIZE - OFFSET_EVENTS) / EVENT_SIZE;
+
+	private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(
+		int[].class, ByteOrder.nativeOrder()
+	);
+	private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(
+		long[].class, ByteOrder.nativeOrder()
+	);
+
+	private final String stepId;
+	private final long thresholdNanos;
+	private final ByteBuffer ring;
+	private final int ringMask;
+	private final AtomicLong ringSeq = new AtomicLong(0);
+	private final IdentitySlots slots;
+	private final AtomicLongArray slotSeqs;
+	private final AtomicLong droppedCount = new AtomicLong(0);
+	private final AtomicLong dumpedCount = new AtomicLong(0);
+	private final BufferedWriter dumpWriter;
+	private final ExecutorService dumpExecutor;
+
+	/**
+	 @param stepId the load step id
+	 @param capacity the count of the ring buffer records, rounded up to the power of 2
+	 @param expectedCount the expected max count of the operations in flight
+	 @param thresholdMillis the min duration of the operation to dump its record
+	 @param dumpFile the file to append the slow operations records to
+	 */
+	public OpTracer(
+		final String stepId, final int capacity, final int expectedCount, final int thresholdMillis, final Path dumpFile
+	) throws IOException {
+		this.stepId = stepId;
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		final var ringCapacity = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+		ring = ByteBuffer.allocateDirect(ringCapacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+		ringMask = ringCapacity - 1;
+		slots = new IdentitySlots(expectedCount);
+		slotSeqs = new AtomicLongArray(slots.capacity());
+		dumpWriter = Files.newBufferedWriter(
+			dumpFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.APPEND
+		);
+		dumpExecutor = Executors.newSingleThreadExecutor(new LogContextThreadFactory(stepId + "-trace", true));
+		Loggers.MSG.info(
+			"{}: tracing the operations slower than {}[ms] into the file \"{}\"", stepId, thresholdMillis, dumpFile
+		);
+	}
+
+	/**
+	 @return the ring buffer record position for the operation, -1 if the operation is not traced or the record has
+	 been overwritten
+	 */
+	private int recordPos(final Object op) {
+		final var i = slots.indexOf(op);
+		if (i < 0) {
+			return -1;
+		}
+		final var seq = slotSeqs.get(i);
+		final var pos = (int) (seq & ringMask) * RECORD_SIZE;
+		return (long) LONG_VIEW.getVolatile(ring, pos + OFFSET_SEQ) == seq ? pos : -1;
+	}
+
+	/**
+	 Claims the record for the new operation and appends the submit event
+	 */
+	public void begin(final Operation<?> op) {
+		final var i = slots.claim(op);
+		if (i < 0) {
+			droppedCount.incrementAndGet();
+			return;
+		}
+		final var seq = ringSeq.getAndIncrement();
+		final var pos = (int) (seq & ringMask) * RECORD_SIZE;
+		final var item = op.item();
+		LONG_VIEW.setVolatile(ring, pos + OFFSET_SEQ, -1L); // invalidate the overwritten record for its previous owner
+		ring.putInt(pos + OFFSET_OP_TYPE, op.type().ordinal());
+		ring.putInt(pos + OFFSET_EVENT_COUNT, 0);
+		ring.putLong(pos + OFFSET_ITEM_OFFSET, op instanceof DataOperation ? ((DataOperation) op).countBytesDone() : 0);
+		final var name = item == null ? null : item.name();
+		var nameLen = 0;
+		if (name != null) {
+			nameLen = Math.min(name.length(), NAME_LENGTH_MAX);
+			final var nameStart = name.length() - nameLen; // keep the tail of the long name
+			for (var k = 0; k < nameLen; k ++) {
+				final var c = name.charAt(nameStart + k);
+				ring.put(pos + OFFSET_NAME + k, c < 0x80 ? (byte) c : (byte) '?');
+			}
+		}
+		ring.putInt(pos + OFFSET_NAME_LENGTH, nameLen);
+		slotSeqs.set(i, seq);
+		LONG_VIEW.setVolatile(ring, pos + OFFSET_SEQ, seq);
+		append(pos, EVENT_SUBMIT, 0);
+	}
+
+	public void event(final Operation<?> op, final int eventType, final int countBytes) {
+		final var pos = recordPos(op);
+		if (pos >= 0) {
+			append(pos, eventType, countBytes);
+		}
+	}
+
+	private void append(final int pos, final int eventType, final int countBytes) {
+		final var n = (int) INT_VIEW.getAndAdd(ring, pos + OFFSET_EVENT_COUNT, 1);
+		// keep the last event slot for the latest event if the record is full
+		final var eventPos = pos + OFFSET_EVENTS + Math.min(n, EVENTS_MAX - 1) * EVENT_SIZE;
+		ring.putLong(eventPos, System.nanoTime());
+		ring.putInt(eventPos + 8, eventType);
+		ring.putInt(eventPos + 12, countBytes);
+	}
+
+	/**
+	 Appends the finish event, releases the operation's record and dumps it if the operation is slow
+	 */
+	public void end(final Operation<?> op) {
+		final var i = slots.indexOf(op);
+		if (i < 0) {
+			return;
+		}
+		final var seq = slotSeqs.get(i);
+		final var pos = (int) (seq & ringMask) * RECORD_SIZE;
+		if ((long) LONG_VIEW.getVolatile(ring, pos + OFFSET_SEQ) == seq) {
+			append(pos, EVENT_FINISH, 0);
+			final var startTime = ring.getLong(pos + OFFSET_EVENTS);
+			final var finishTime = System.nanoTime();
+			if (finishTime - startTime >= thresholdNanos) {
+				final var record = new byte[RECORD_SIZE];
+				ring.duplicate().position(pos).get(record);
+				// the record may be overwritten while copying if the ring buffer wrapped around
+				if ((long) LONG_VIEW.getVolatile(ring, pos + OFFSET_SEQ) == seq) {
+					dumpExecutor.execute(() -> dump(ByteBuffer.wrap(record).order(ByteOrder.nativeOrder())));
+				} else {
+					droppedCount.incrementAndGet();
+				}
+			}
+		} else {
+			droppedCount.incrementAndGet();
+		}
+		slots.release(i);
+	}
+
+	private void dump(final ByteBuffer record) {
+		final var eventCount = Math.min(record.getInt(OFFSET_EVENT_COUNT), EVENTS_MAX);
+		final var startTime = record.getLong(OFFSET_EVENTS);
+		final var name = new byte[record.getInt(OFFSET_NAME_LENGTH)];
+		record.position(OFFSET_NAME);
+		record.get(name);
+		final var line = new StringBuilder(0x100)
+			.append(OpType.values()[record.getInt(OFFSET_OP_TYPE)])
+			.append(' ')
+			.append(new String(name, StandardCharsets.US_ASCII))
+			.append(" offset=")
+			.append(record.getLong(OFFSET_ITEM_OFFSET))
+			.append(" duration[us]=")
+			.append(
+				TimeUnit.NANOSECONDS.toMicros(
+					record.getLong(OFFSET_EVENTS + (eventCount - 1) * EVENT_SIZE) - startTime
+				)
+			);
+		for (var k = 0; k < eventCount; k ++) {
+			final var eventPos = OFFSET_EVENTS + k * EVENT_SIZE;
+			final var eventType = record.getInt(eventPos + 8);
+			line
+				.append(' ')
+				.append(EVENT_NAMES[eventType])
+				.append('@')
+				.append(TimeUnit.NANOSECONDS.toMicros(record.getLong(eventPos) - startTime));
+			if (eventType == EVENT_COMPLETED) {
+				line.append('+').append(record.getInt(eventPos + 12));
+			}
+		}
+		try {
+			dumpWriter.write(line.toString());
+			dumpWriter.newLine();
+			dumpWriter.flush();
+			dumpedCount.incrementAndGet();
+		} catch (final IOException e) {
+			LogUtil.exception(Level.WARN, e, "{}: failed to dump the slow operation trace", stepId);
+		}
+	}
+
+	@Override
+	public void close() {
+		dumpExecutor.shutdown();
+		try {
+			if (!dumpExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+				dumpExecutor.shutdownNow();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			dumpWriter.close();
+		} catch (final IOException e) {
+			LogUtil.exception(Level.DEBUG, e, "{}: failed to close the trace file", stepId);
+		}
+		Loggers.MSG.info(
+			"{}: slow operations traced: {}, not traced: {}", stepId, dumpedCount.get(), droppedCount.get()
+		);
+	}
+}
@@ -0,0 +1,68 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+
+/**
+ Handles the completion of the single chunk write of the ranges update. The handler and its buffer are reused for the
+ next chunks while there are any, then the handler is returned back to the driver's pool.
+ */
+public final class RangeWriteCompletionHandler
+implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
+
+	private final AioStorageDriverBase<?, ?> driver;
+	RangesUpdate rangesUpdate;
+	ByteBuffer buff;
+	private long filePos;
+	private long chunkSize;
+	private long startTime;
+
+	RangeWriteCompletionHandler(final AioStorageDriverBase<?, ?> driver) {
+		this.driver = driver;
+	}
+
+	RangeWriteCompletionHandler init(final RangesUpdate rangesUpdate, final ByteBuffer buff) {
+		this.rangesUpdate = rangesUpdate;
+		this.buff = buff;
+		return this;
+	}
+
+	void clear() {
+		rangesUpdate = null;
+		buff = null;
+	}
+
+	/**
+	 Writes the buffer content to the given file position
+	 */
+	void write(final long filePos) {
+		this.filePos = filePos;
+		this.chunkSize = buff.remaining();
+		this.startTime = driver.ioStartTime();
+		rangesUpdate.dstChan.write(buff, filePos, rangesUpdate.dataOp, this);
+	}
+
+	long chunkSize() {
+		return chunkSize;
+	}
+
+	@Override
+	public void completed(final Integer n, final DataOperation<? extends DataItem> dataOp) {
+		driver.traceCompleted(dataOp, n);
+		if (buff.hasRemaining()) { // short write, write the remaining content
+			filePos += n;
+			rangesUpdate.dstChan.write(buff, filePos, dataOp, this);
+		} else {
+			driver.ioDone(startTime);
+			driver.rangeWriteCompleted(this);
+		}
+	}
+
+	@Override
+	public void failed(final Throwable exc, final DataOperation<? extends DataItem> dataOp) {
+		driver.rangeWriteFailed(this, exc); // will release the handler
+	}
+}
@@ -0,0 +1,289 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.github.akurilov.commons.collection.Range;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ The state of the update operation which writes the content of the updating ranges using several positional writes
+ concurrently. Each range is split into the chunks not bigger than the buffer size. The state is shared between the
+ writes in flight so the methods are synchronized. The invoking thread holds the state as the write in flight until
+ all the writes are started, so the state may be released back to the pool only when the last one is done. The ranges
+ arrays and the content slices are reused by the next updates.
+ */
+final class RangesUpdate {
+
+	static final long NO_MORE_CHUNKS = -1;
+	static final long ALL_DONE = -2;
+	/** The update has failed and there are no more writes in flight */
+	static final long ABORTED = -3;
+
+	private static final int RANGES_CAPACITY_INIT = 4;
+
+	DataOperation<? extends DataItem> dataOp;
+	AsyncChannel dstChan;
+	private long[] fileOffsets = new long[RANGES_CAPACITY_INIT];
+	private DataItem[] contents = new DataItem[RANGES_CAPACITY_INIT];
+	// the slices to reuse for the next updates' contents, the marked ranges contents are not kept there
+	private DataItem[] slices = new DataItem[RANGES_CAPACITY_INIT];
+	private long[] sizes = new long[RANGES_CAPACITY_INIT];
+	private int rangesCount;
+	private long size;
+	private long newSize;
+	private boolean markedRanges;
+	private boolean fullOverwrite;
+
+	private int rangeIdx;
+	private long rangePos;
+	private int inFlightCount;
+	private long countBytesDone;
+	private boolean failedFlag;
+
+	/**
+	 Determines the file regions to write and their content for the given update operation.
+	 */
+	synchronized RangesUpdate init(final DataOperation<? extends DataItem> dataOp, final AsyncChannel dstChan)
+	throws IOException {
+		this.dataOp = dataOp;
+		this.dstChan = dstChan;
+		rangesCount = 0;
+		size = 0;
+		markedRanges = false;
+		fullOverwrite = false;
+		rangeIdx = 0;
+		rangePos = 0;
+		inFlightCount = 1; // the invoking thread
+		countBytesDone = 0;
+		failedFlag = false;
+		final DataItem dataItem = dataOp.item();
+		final var baseItemSize = dataItem.size();
+		final var nextLayer = dataItem.layer() + 1;
+		final List<Range> fixedRanges = dataOp.fixedRanges();
+		newSize = baseItemSize;
+		if (fixedRanges != null && !fixedRanges.isEmpty()) {
+			final var maskPair = dataOp.markedRangesMaskPair();
+			for (var i = 0; i < fixedRanges.size(); i ++) {
+				final var fixedRange = fixedRanges.get(i);
+				var rangeBeg = fixedRange.getBeg();
+				final var rangeEnd = fixedRange.getEnd();
+				final long rangeSize;
+				if (rangeBeg == -1 && rangeEnd == -1) { // append
+					rangeBeg = newSize;
+					rangeSize = fixedRange.getSize();
+					newSize += rangeSize;
+					if (rangeSize > 0) {
+						// the same layer continues the existing content so the item remains verifiable
+						addRange(rangeBeg, slice(dataItem, rangeBeg, rangeSize), rangeSize);
+					}
+				} else {
+					if (rangeBeg == -1) { // the last "rangeEnd" bytes
+						rangeBeg = baseItemSize - rangeEnd;
+						rangeSize = rangeEnd;
+					} else if (rangeEnd == -1) { // from the "rangeBeg" offset to the end
+						rangeSize = baseItemSize - rangeBeg;
+					} else {
+						rangeSize = rangeEnd - rangeBeg + 1;
+					}
+					if (rangeSize > 0) {
+						markRanges(dataItem, maskPair, baseItemSize, rangeBeg, rangeBeg + rangeSize);
+					}
+				}
+			}
+			if (!maskPair[0].isEmpty() || !maskPair[1].isEmpty()) {
+				addMarkedRanges(baseItemSize);
+			}
+		} else if (dataOp.hasMarkedRanges()) {
+			addMarkedRanges(baseItemSize);
+		} else if (baseItemSize > 0) {
+			fullOverwrite = true;
+			final DataItem content = slice(dataItem, 0, baseItemSize);
+			content.layer(nextLayer);
+			addRange(0, content, baseItemSize);
+		}
+		return this;
+	}
+
+	/**
+	 Marks the item ranges overlapping the given region as updating the same way as the random ranges are marked, so
+	 the updated content remains verifiable. The whole item ranges are written then, not only the given region.
+	 */
+	private static void markRanges(
+		final DataItem dataItem, final BitSet[] maskPair, final long baseItemSize, final long beg, final long end
+	) {
+		final var rangeCount = DataItem.rangeCount(baseItemSize);
+		for (var i = 0; i < rangeCount && DataItem.rangeOffset(i) < end; i ++) {
+			if (DataItem.rangeOffset(i + 1) > beg) {
+				// the range which has been updated already is updated to the next layer
+				maskPair[dataItem.isRangeUpdated(i) ? 1 : 0].set(i);
+			}
+		}
+	}
+
+	/**
+	 Adds the ranges marked by the operation as updating with their content of the next layer
+	 */
+	private void addMarkedRanges(final long baseItemSize)
+	throws IOException {
+		markedRanges = true;
+		final var rangeCount = DataItem.rangeCount(baseItemSize);
+		for (var i = 0; i < rangeCount; i ++) {
+			dataOp.currRangeIdx(i);
+			final DataItem rangeContent = dataOp.currRangeUpdate();
+			if (rangeContent != null) {
+				addRange(DataItem.rangeOffset(i), rangeContent, rangeContent.size());
+			}
+		}
+		dataOp.currRangeIdx(0);
+	}
+
+	/**
+	 Releases the references to the operation and to the contents, keeps the slices for the reuse
+	 */
+	synchronized void clear() {
+		dataOp = null;
+		dstChan = null;
+		Arrays.fill(contents, 0, rangesCount, null);
+		rangesCount = 0;
+	}
+
+	/**
+	 @return the reused slice of the given item for the next range
+	 */
+	private DataItem slice(final DataItem dataItem, final long from, final long size) {
+		ensureRangesCapacity();
+		final var slice = ItemSlices.slice(slices[rangesCount], dataItem, from, size);
+		slices[rangesCount] = slice;
+		return slice;
+	}
+
+	private void addRange(final long fileOffset, final DataItem content, final long rangeSize) {
+		ensureRangesCapacity();
+		fileOffsets[rangesCount] = fileOffset;
+		contents[rangesCount] = content;
+		sizes[rangesCount] = rangeSize;
+		size += rangeSize;
+		rangesCount ++;
+	}
+
+	private void ensureRangesCapacity() {
+		if (rangesCount == contents.length) {
+			final var capacity = 2 * rangesCount;
+			fileOffsets = Arrays.copyOf(fileOffsets, capacity);
+			contents = Arrays.copyOf(contents, capacity);
+			slices = Arrays.copyOf(slices, capacity);
+			sizes = Arrays.copyOf(sizes, capacity);
+		}
+	}
+
+	/**
+	 @return the total count of the bytes to write
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 Fills the buffer with the next chunk content and accounts the new write in flight
+	 @return the file position to write the buffer content to, or {@link #NO_MORE_CHUNKS}
+	 */
+	synchronized long start(final ByteBuffer buff)
+	throws IOException {
+		if (!failedFlag && rangeIdx < rangesCount) {
+			final var pos = nextChunk(buff);
+			inFlightCount ++;
+			return pos;
+		}
+		return NO_MORE_CHUNKS;
+	}
+
+	/**
+	 Accounts the completed chunk write and fills the buffer with the next chunk content if any. The write remains in
+	 flight if the exception is thrown.
+	 @param n the size of the completed chunk
+	 @return the file position to write the buffer content to, {@link #NO_MORE_CHUNKS} if there's no more chunks to
+	 write but some writes are still in flight, {@link #ALL_DONE} if the update is done or {@link #ABORTED} if the
+	 update has failed and this was the last write in flight
+	 */
+	synchronized long next(final ByteBuffer buff, final long n)
+	throws IOException {
+		if (!failedFlag) {
+			countBytesDone += n;
+			dataOp.countBytesDone(countBytesDone);
+			if (rangeIdx < rangesCount) {
+				return nextChunk(buff);
+			}
+		}
+		return ended();
+	}
+
+	/**
+	 Accounts the end of the write in flight which doesn't continue or the end of the writes starting by the invoking
+	 thread
+	 @return {@link #NO_MORE_CHUNKS} if some writes are still in flight, {@link #ALL_DONE} or {@link #ABORTED} if all
+	 the writes are done already
+	 */
+	synchronized long ended() {
+		inFlightCount --;
+		if (inFlightCount > 0) {
+			return NO_MORE_CHUNKS;
+		}
+		return failedFlag ? ABORTED : ALL_DONE;
+	}
+
+	/**
+	 Marks the update as failed so the writes still in flight don't continue it
+	 @return true if the update has not been marked as failed before
+	 */
+	synchronized boolean fail() {
+		if (failedFlag) {
+			return false;
+		}
+		failedFlag = true;
+		return true;
+	}
+
+	private long nextChunk(final ByteBuffer buff)
+	throws IOException {
+		final var rangeSize = sizes[rangeIdx];
+		final var content = contents[rangeIdx];
+		buff.clear();
+		final var chunkSize = (int) Math.min(buff.capacity(), rangeSize - rangePos);
+		buff.limit(chunkSize);
+		content.position(rangePos);
+		while (buff.hasRemaining()) {
+			if (content.read(buff) < 0) {
+				throw new IOException("Unexpected end of the content of the range #" + rangeIdx);
+			}
+		}
+		buff.flip();
+		final var pos = fileOffsets[rangeIdx] + rangePos;
+		rangePos += chunkSize;
+		if (rangePos == rangeSize) {
+			rangeIdx ++;
+			rangePos = 0;
+		}
+		return pos;
+	}
+
+	/**
+	 Applies the update results to the data item. Should be invoked once after all the writes are done.
+	 */
+	void commit() {
+		final DataItem dataItem = dataOp.item();
+		if (fullOverwrite) {
+			dataItem.layer(dataItem.layer() + 1);
+		} else {
+			if (markedRanges) {
+				dataItem.commitUpdatedRanges(dataOp.markedRangesMaskPair());
+			}
+			dataItem.size(newSize); // the appended ranges are committed by the size
+		}
+	}
+}
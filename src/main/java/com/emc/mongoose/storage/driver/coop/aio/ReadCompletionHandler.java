@@ -0,0 +1,53 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+
+/**
+ The reusable read completion handler. Returns itself to the driver's pool before passing the result to the driver.
+ */
+public final class ReadCompletionHandler
+implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
+
+	private final AioStorageDriverBase<?, ?> driver;
+	private AsyncChannel srcChan;
+	private ByteBuffer buff;
+	private long startTime;
+
+	ReadCompletionHandler(final AioStorageDriverBase<?, ?> driver) {
+		this.driver = driver;
+	}
+
+	ReadCompletionHandler init(final AsyncChannel srcChan, final ByteBuffer buff) {
+		this.srcChan = srcChan;
+		this.buff = buff;
+		this.startTime = driver.ioStartTime();
+		return this;
+	}
+
+	@Override
+	public void completed(final Integer result, final DataOperation<? extends DataItem> dataOp) {
+		driver.ioDone(startTime);
+		driver.traceCompleted(dataOp, result);
+		final var srcChan = this.srcChan;
+		final var buff = this.buff;
+		this.srcChan = null;
+		this.buff = null;
+		driver.readHandlerPool.release(this);
+		driver.readCompleted(result, dataOp, srcChan, buff);
+	}
+
+	@Override
+	public void failed(final Throwable exc, final DataOperation<? extends DataItem> dataOp) {
+		final var buff = this.buff;
+		this.srcChan = null;
+		this.buff = null;
+		driver.readHandlerPool.release(this);
+		driver.ioBuffPools.release(buff);
+		driver.failed(exc, dataOp);
+	}
+}
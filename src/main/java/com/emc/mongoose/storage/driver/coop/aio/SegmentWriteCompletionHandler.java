@@ -0,0 +1,85 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+
+import java.io.IOException;
+import java.nio.channels.CompletionHandler;
+
+/**
+ Handles the completion of the single segment write of the windowed create. The handler is reused for the next
+ segments while there are any. Each segment is written from its own slice of the item as far as the writes are
+ concurrent and the item content position is not shared between them. The slice is reused by the handler for the next
+ segments and the next items.
+ */
+public final class SegmentWriteCompletionHandler
+implements CompletionHandler<Integer, DataOperation<? extends DataItem>> {
+
+	private final AioStorageDriverBase<?, ?> driver;
+	WindowedCreate windowedCreate;
+	private DataItem content;
+	private long segmentStart;
+	private long segmentPos;
+	private long segmentEnd;
+	private long startTime;
+
+	SegmentWriteCompletionHandler(final AioStorageDriverBase<?, ?> driver) {
+		this.driver = driver;
+	}
+
+	SegmentWriteCompletionHandler init(final WindowedCreate windowedCreate) {
+		this.windowedCreate = windowedCreate;
+		return this;
+	}
+
+	void clear() {
+		windowedCreate = null;
+	}
+
+	/**
+	 Writes the item content segment starting from the given position
+	 */
+	void write(final long segmentPos)
+	throws IOException {
+		this.segmentStart = segmentPos;
+		this.segmentPos = segmentPos;
+		this.segmentEnd = windowedCreate.segmentEnd(segmentPos);
+		this.content = ItemSlices.slice(content, windowedCreate.dataOp.item(), segmentPos, segmentEnd - segmentPos);
+		this.startTime = driver.ioStartTime();
+		writeRemaining(windowedCreate.dataOp);
+	}
+
+	long segmentSize() {
+		return segmentEnd - segmentStart;
+	}
+
+	private void writeRemaining(final DataOperation<? extends DataItem> dataOp)
+	throws IOException {
+		content.position(segmentPos - segmentStart);
+		content.writeToAsyncChannel(windowedCreate.dstChan, segmentPos, segmentEnd - segmentPos, dataOp, this);
+	}
+
+	@Override
+	public void completed(final Integer n, final DataOperation<? extends DataItem> dataOp) {
+		driver.traceCompleted(dataOp, n);
+		segmentPos += n;
+		if (segmentPos < segmentEnd) { // short write, write the remaining content
+			try {
+				writeRemaining(dataOp);
+			} catch (final IOException e) {
+				failed(e, dataOp);
+			}
+		} else {
+			driver.ioDone(startTime);
+			driver.segmentWriteCompleted(this);
+		}
+	}
+
+	@Override
+	public void failed(final Throwable exc, final DataOperation<? extends DataItem> dataOp) {
+		if (windowedCreate.fail()) {
+			driver.failed(exc, dataOp);
+		}
+		driver.segmentWriteCompleted(this); // will release the handler
+	}
+}
@@ -0,0 +1,118 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+
+/**
+ The state of the create operation which writes the item content using several positional writes concurrently. The
+ content is split into the segments of the same size aligned to the segment size. The state is shared between the
+ writes in flight so the methods are synchronized. The invoking thread holds the state as the write in flight until
+ all the writes are started, so the state may be released back to the pool only when the last one is done.
+ */
+final class WindowedCreate {
+
+	static final long NO_MORE_SEGMENTS = -1;
+	static final long ALL_DONE = -2;
+	/** The create has failed and there are no more writes in flight */
+	static final long ABORTED = -3;
+
+	DataOperation<? extends DataItem> dataOp;
+	AsyncChannel dstChan;
+	private long contentSize;
+	private long segmentSize;
+
+	private long nextSegmentPos;
+	private long countBytesDone;
+	private int inFlightCount;
+	private boolean failedFlag;
+
+	synchronized WindowedCreate init(
+		final DataOperation<? extends DataItem> dataOp, final AsyncChannel dstChan, final long countBytesDone,
+		final long contentSize, final long segmentSize
+	) {
+		this.dataOp = dataOp;
+		this.dstChan = dstChan;
+		this.countBytesDone = countBytesDone;
+		this.contentSize = contentSize;
+		this.segmentSize = segmentSize;
+		this.nextSegmentPos = countBytesDone;
+		this.inFlightCount = 1; // the invoking thread
+		this.failedFlag = false;
+		return this;
+	}
+
+	synchronized void clear() {
+		dataOp = null;
+		dstChan = null;
+	}
+
+	long segmentEnd(final long segmentPos) {
+		// align the segment end so the next segments are aligned even if the start position is not
+		return Math.min(contentSize, (segmentPos / segmentSize + 1) * segmentSize);
+	}
+
+	/**
+	 Accounts the new write in flight
+	 @return the next segment position or {@link #NO_MORE_SEGMENTS}
+	 */
+	synchronized long start() {
+		if (!failedFlag && nextSegmentPos < contentSize) {
+			inFlightCount ++;
+			return takeNextSegment();
+		}
+		return NO_MORE_SEGMENTS;
+	}
+
+	/**
+	 Accounts the completed segment write
+	 @param n the size of the completed segment
+	 @return the next segment position, {@link #NO_MORE_SEGMENTS} if there's no more segments to write but some writes
+	 are still in flight, {@link #ALL_DONE} if all the content is written or {@link #ABORTED} if the create has failed
+	 and this was the last write in flight
+	 */
+	synchronized long next(final long n) {
+		inFlightCount --;
+		if (failedFlag) {
+			return inFlightCount == 0 ? ABORTED : NO_MORE_SEGMENTS; // the operation is already finished
+		}
+		countBytesDone += n;
+		dataOp.countBytesDone(countBytesDone);
+		if (nextSegmentPos < contentSize) {
+			inFlightCount ++;
+			return takeNextSegment();
+		}
+		return inFlightCount == 0 ? ALL_DONE : NO_MORE_SEGMENTS;
+	}
+
+	/**
+	 Accounts the end of the writes starting by the invoking thread
+	 @return {@link #NO_MORE_SEGMENTS} if some writes are still in flight, {@link #ALL_DONE} or {@link #ABORTED} if
+	 all the writes are done already
+	 */
+	synchronized long started() {
+		inFlightCount --;
+		if (inFlightCount > 0) {
+			return NO_MORE_SEGMENTS;
+		}
+		return failedFlag ? ABORTED : ALL_DONE;
+	}
+
+	private long takeNextSegment() {
+		final var segmentPos = nextSegmentPos;
+		nextSegmentPos = segmentEnd(segmentPos);
+		return segmentPos;
+	}
+
+	/**
+	 Marks the create as failed so the writes still in flight don't continue it
+	 @return true if the create has not been marked as failed before
+	 */
+	synchronized boolean fail() {
+		if (failedFlag) {
+			return false;
+		}
+		failedFlag = true;
+		return true;
+	}
+}
@@ -0,0 +1,253 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
+import com.emc.mongoose.base.logging.LogUtil;
+
+import org.apache.logging.log4j.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ The bounded cache of the open file channels keyed by the file path and the open options. The least recently used
+ channels are evicted when the cache size limit is exceeded. The cached channel is reference counted: its close
+ releases the reference instead of closing the file and the evicted channel is closed asynchronously when it's not used
+ by any operation in flight.
+ */
+final class ChannelCache
+implements Closeable {
+
+	private final int capacity;
+	private final ChannelOpener opener;
+	private final ExecutorService closeExecutor;
+	private final Map<Key, CachedChannel> entries; // access order, guarded by this
+	private long hitCount = 0;
+	private long missCount = 0;
+
+	/**
+	 @param capacity the max count of the cached channels
+	 @param opener the function opening the new channels
+	 @param name the name prefix for the thread closing the evicted channels
+	 */
+	ChannelCache(final int capacity, final ChannelOpener opener, final String name) {
+		this.capacity = capacity;
+		this.opener = opener;
+		this.closeExecutor = Executors.newSingleThreadExecutor(new LogContextThreadFactory(name + "-close", true));
+		this.entries = new LinkedHashMap<>(capacity, 0.75f, true);
+	}
+
+	/**
+	 @return the cached channel if any, the newly opened channel otherwise. The returned channel should be closed after
+	 the use in order to release the reference.
+	 @throws IOException if failed to open the new channel
+	 */
+	SyncableChannel acquire(final Path path, final Set<OpenOption> openOpts)
+	throws IOException {
+		final var key = new Key(path.toAbsolutePath(), openOpts);
+		synchronized (this) {
+			final var cached = entries.get(key);
+			if (cached != null) {
+				if (cached.channel.isOpen()) {
+					cached.refCount ++;
+					hitCount ++;
+					return cached;
+				}
+				entries.remove(key);
+				cached.evicted = true;
+			}
+			missCount ++;
+		}
+		// open outside the lock as far as the open may take long (on NFS, for example)
+		final var channel = opener.open(path, openOpts);
+		synchronized (this) {
+			final var cached = entries.get(key);
+			if (cached != null && cached.channel.isOpen()) { // has been opened concurrently
+				cached.refCount ++;
+				closeAsync(channel);
+				return cached;
+			}
+			final var newCached = new CachedChannel(this, channel);
+			newCached.refCount = 1;
+			entries.put(key, newCached);
+			if (cached != null) {
+				cached.evicted = true;
+			}
+			evictExcessive();
+			return newCached;
+		}
+	}
+
+	/**
+	 Removes the channel from the cache, should be invoked when the file is deleted or recreated. The channel is closed
+	 when it's not used by any operation in flight.
+	 */
+	synchronized void invalidate(final Path path, final Set<OpenOption> openOpts) {
+		final var cached = entries.remove(new Key(path.toAbsolutePath(), openOpts));
+		if (cached != null) {
+			evict(cached);
+		}
+	}
+
+	private synchronized void release(final CachedChannel cached) {
+		cached.refCount --;
+		if (cached.refCount == 0 && cached.evicted) {
+			closeAsync(cached.channel);
+		}
+	}
+
+	/**
+	 Should be invoked under the lock
+	 */
+	private void evictExcessive() {
+		final var entriesIter = entries.values().iterator();
+		while (entries.size() > capacity && entriesIter.hasNext()) {
+			final var eldest = entriesIter.next();
+			entriesIter.remove();
+			evict(eldest);
+		}
+	}
+
+	/**
+	 Should be invoked under the lock
+	 */
+	private void evict(final CachedChannel cached) {
+		cached.evicted = true;
+		if (cached.refCount == 0) {
+			closeAsync(cached.channel);
+		}
+	}
+
+	private void closeAsync(final AsyncChannel channel) {
+		try {
+			closeExecutor.execute(() -> closeChannel(channel));
+		} catch (final RejectedExecutionException e) { // closing
+			closeChannel(channel);
+		}
+	}
+
+	private static void closeChannel(final AsyncChannel channel) {
+		try {
+			channel.close();
+		} catch (final IOException e) {
+			LogUtil.exception(Level.WARN, e, "Failed to close the evicted file channel {}", channel);
+		}
+	}
+
+	@Override
+	public void close() {
+		synchronized (this) {
+			for (final var cached : entries.values()) {
+				cached.evicted = true;
+				if (cached.refCount == 0) {
+					closeChannel(cached.channel);
+				}
+			}
+			entries.clear();
+		}
+		closeExecutor.shutdown();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "size: " + entries.size() + "/" + capacity + ", hits: " + hitCount + ", misses: " + missCount;
+	}
+
+	@FunctionalInterface
+	interface ChannelOpener {
+		SyncableChannel open(final Path path, final Set<OpenOption> openOpts)
+		throws IOException;
+	}
+
+	private static final class Key {
+
+		private final Path path;
+		private final Set<OpenOption> openOpts;
+
+		Key(final Path path, final Set<OpenOption> openOpts) {
+			this.path = path;
+			this.openOpts = openOpts;
+		}
+
+		@Override
+		public final boolean equals(final Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			final var otherKey = (Key) other;
+			return path.equals(otherKey.path) && openOpts.equals(otherKey.openOpts);
+		}
+
+		@Override
+		public final int hashCode() {
+			return 31 * path.hashCode() + openOpts.hashCode();
+		}
+	}
+
+	/**
+	 The cached channel wrapper. The close releases the reference to the channel.
+	 */
+	private static final class CachedChannel
+	implements SyncableChannel {
+
+		private final ChannelCache cache;
+		private final SyncableChannel channel;
+		private int refCount = 0; // guarded by the cache
+		private boolean evicted = false; // guarded by the cache
+
+		CachedChannel(final ChannelCache cache, final SyncableChannel channel) {
+			this.cache = cache;
+			this.channel = channel;
+		}
+
+		@Override
+		public final <A> void read(
+			final ByteBuffer dst, final long position, final A attach,
+			final CompletionHandler<Integer, ? super A> handler
+		) {
+			channel.read(dst, position, attach, handler);
+		}
+
+		@Override
+		public final <A> void write(
+			final ByteBuffer src, final long position, final A attach,
+			final CompletionHandler<Integer, ? super A> handler
+		) {
+			channel.write(src, position, attach, handler);
+		}
+
+		@Override
+		public final void sync(final boolean metaData)
+		throws IOException {
+			channel.sync(metaData);
+		}
+
+		@Override
+		public final boolean isOpen() {
+			return channel.isOpen();
+		}
+
+		@Override
+		public final void close() {
+			cache.release(this);
+		}
+
+		@Override
+		public final String toString() {
+			return channel.toString();
+		}
+	}
+}
@@ -1,6 +1,17 @@
 package com.emc.mongoose.storage.driver.coop.aio.fs;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public interface DirIoHelper {
 
@@ -15,4 +26,114 @@ public interface DirIoHelper {
 			return null;
 		}
 	}
+
+	/**
+	 Creates the directory and the tree of the subdirectories under it. The subdirectories are named using their index
+	 in the parent directory. The subtrees are created in parallel when invoked in the fork-join pool.
+	 */
+	final class DirTreeCreateAction
+	extends RecursiveAction {
+
+		private final Path dirPath;
+		private final int depth;
+		private final int fanOut;
+
+		/**
+		 @param dirPath the root directory path
+		 @param depth the count of the subdirectory levels to create, 0 means only the root directory
+		 @param fanOut the count of the subdirectories to create in each directory
+		 */
+		public DirTreeCreateAction(final Path dirPath, final int depth, final int fanOut) {
+			this.dirPath = dirPath;
+			this.depth = depth;
+			this.fanOut = fanOut;
+		}
+
+		@Override
+		protected final void compute() {
+			try {
+				FsConstants.FS_PROVIDER.createDirectory(dirPath);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (depth > 0 && fanOut > 0) {
+				final List<DirTreeCreateAction> subTreeActions = new ArrayList<>(fanOut);
+				for (var i = 0; i < fanOut; i ++) {
+					subTreeActions.add(
+						new DirTreeCreateAction(
+							dirPath.resolve(Integer.toString(i, Character.MAX_RADIX)), depth - 1, fanOut
+						)
+					);
+				}
+				ForkJoinTask.invokeAll(subTreeActions);
+			}
+		}
+	}
+
+	/**
+	 Deletes the directory with all its contents. The subdirectories are deleted in parallel when invoked in the
+	 fork-join pool.
+	 */
+	final class DirTreeDeleteAction
+	extends RecursiveAction {
+
+		private final Path dirPath;
+
+		public DirTreeDeleteAction(final Path dirPath) {
+			this.dirPath = dirPath;
+		}
+
+		@Override
+		protected final void compute() {
+			final List<DirTreeDeleteAction> subDirActions = new ArrayList<>();
+			try {
+				try (
+					final DirectoryStream<Path> dirStream = FsConstants.FS_PROVIDER.newDirectoryStream(
+						dirPath, ListingHelper.ACCEPT_ALL_PATHS_FILTER
+					)
+				) {
+					for (final var entry : dirStream) {
+						final var attrs = FsConstants.FS_PROVIDER.readAttributes(
+							entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+						);
+						if (attrs.isDirectory()) {
+							final var subDirAction = new DirTreeDeleteAction(entry);
+							subDirAction.fork();
+							subDirActions.add(subDirAction);
+						} else {
+							FsConstants.FS_PROVIDER.delete(entry);
+						}
+					}
+				} catch (final DirectoryIteratorException e) {
+					throw e.getCause();
+				}
+				for (final var subDirAction : subDirActions) {
+					subDirAction.join();
+				}
+				FsConstants.FS_PROVIDER.delete(dirPath);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 @return the count of the entries in the directory
+	 */
+	static long listDir(final Path dirPath)
+	throws IOException {
+		var count = 0L;
+		try (
+			final DirectoryStream<Path> dirStream = FsConstants.FS_PROVIDER.newDirectoryStream(
+				dirPath, ListingHelper.ACCEPT_ALL_PATHS_FILTER
+			)
+		) {
+			for (final var ignored : dirStream) {
+				count ++;
+			}
+		} catch (final DirectoryIteratorException e) {
+			throw e.getCause();
+		}
+		return count;
+	}
 }
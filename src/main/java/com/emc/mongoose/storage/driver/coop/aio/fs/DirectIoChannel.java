@@ -0,0 +1,603 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.storage.driver.coop.aio.DirectBufferPool;
+import com.emc.mongoose.storage.driver.coop.aio.ObjectPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ The channel of the file opened for the direct I/O (O_DIRECT), which requires the file position, the count of bytes and
+ the buffer address to be aligned to the file system block size. The aligned I/O (the full chunks from the aligned
+ driver buffers pool) is passed through as is. The unaligned reads are performed via the aligned bounce buffer and the
+ reads with the unaligned length only are extended to the next block boundary and then clamped. The writes of the
+ aligned file regions from the unaligned buffers are performed via the bounce buffer. The other unaligned writes are
+ performed via the bounce buffer too, the partial head/tail blocks are read before (read-modify-write) and the file is
+ truncated to the expected size if it was extended by the tail block padding. The read-modify-writes to the same
+ channel are serialized as far as the adjacent ones may modify the same block. The completion handlers and the bounce
+ buffers are pooled and shared by all the channels of the I/O engine.
+ */
+final class DirectIoChannel
+implements SyncableChannel {
+
+	private final AsynchronousFileChannel channel;
+	private final int blockSize;
+	private final long blockMask;
+	private final Pools pools;
+	private final Queue<UnalignedWrite> pendingUnalignedWrites = new ArrayDeque<>(); // guarded by this
+	private boolean unalignedWriteInFlight = false; // guarded by this
+
+	/**
+	 @param channel the file channel opened with the direct I/O option
+	 @param blockSize the file system block size, should be the power of 2
+	 @param pools the bounce buffers and the completion handlers pools
+	 */
+	DirectIoChannel(final AsynchronousFileChannel channel, final int blockSize, final Pools pools) {
+		this.channel = channel;
+		this.blockSize = blockSize;
+		this.blockMask = blockSize - 1;
+		this.pools = pools;
+	}
+
+	private boolean isAligned(final long n) {
+		return (n & blockMask) == 0;
+	}
+
+	private long alignUp(final long n) {
+		return (n + blockMask) & ~blockMask;
+	}
+
+	private boolean isAligned(final ByteBuffer buff) {
+		return buff.isDirect() && buff.alignmentOffset(buff.position(), blockSize) == 0;
+	}
+
+	@Override
+	public <A> void read(
+		final ByteBuffer dst, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		final var n = dst.remaining();
+		if (isAligned(position) && isAligned(dst)) {
+			if (isAligned(n)) {
+				channel.read(dst, position, attach, handler);
+				return;
+			}
+			final var alignedLimit = dst.position() + alignUp(n);
+			if (alignedLimit <= dst.capacity()) {
+				final var limit = dst.limit();
+				dst.limit((int) alignedLimit);
+				channel.read(dst, position, attach, pools.clampedReads.lease().init(dst, limit, handler));
+				return;
+			}
+		}
+		final var headSkip = (int) (position & blockMask);
+		final var bounceBuff = pools.bounceBuffs.lease();
+		bounceBuff.limit((int) Math.min(alignUp(headSkip + n), bounceBuff.capacity()));
+		channel.read(
+			bounceBuff, position - headSkip, attach, pools.bouncedReads.lease().init(dst, bounceBuff, headSkip, handler)
+		);
+	}
+
+	@Override
+	public <A> void write(
+		final ByteBuffer src, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		final var n = src.remaining();
+		if (isAligned(position) && n >= blockSize) {
+			if (!isAligned(src)) { // no read-modify-write is required for the aligned region
+				pools.bouncedWrites.lease().init(this, src, position, attach, handler).start();
+			} else if (isAligned(n)) {
+				channel.write(src, position, attach, handler);
+			} else { // write the aligned part only, the remaining tail will be written on the next invocation
+				final var limit = src.limit();
+				src.limit(src.position() + (int) (n & ~blockMask));
+				channel.write(src, position, attach, pools.clampedWrites.lease().init(src, limit, handler));
+			}
+			return;
+		}
+		final var unalignedWrite = pools.unalignedWrites.lease().init(this, src, position, attach, handler);
+		synchronized (this) {
+			if (unalignedWriteInFlight) {
+				pendingUnalignedWrites.add(unalignedWrite);
+				return;
+			}
+			unalignedWriteInFlight = true;
+		}
+		unalignedWrite.start();
+	}
+
+	private void unalignedWriteDone() {
+		final UnalignedWrite next;
+		synchronized (this) {
+			next = pendingUnalignedWrites.poll();
+			if (next == null) {
+				unalignedWriteInFlight = false;
+			}
+		}
+		if (next != null) {
+			next.start();
+		}
+	}
+
+	@Override
+	public void sync(final boolean metaData)
+	throws IOException {
+		channel.force(metaData);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	@Override
+	public void close()
+	throws IOException {
+		channel.close();
+	}
+
+	@Override
+	public String toString() {
+		return channel.toString();
+	}
+
+	/**
+	 The bounce buffers and the reusable completion handlers shared by the channels
+	 */
+	static final class Pools {
+
+		private final DirectBufferPool bounceBuffs;
+		private final ObjectPool<ClampedRead> clampedReads;
+		private final ObjectPool<BouncedRead> bouncedReads;
+		private final ObjectPool<ClampedWrite> clampedWrites;
+		private final ObjectPool<BouncedWrite> bouncedWrites;
+		private final ObjectPool<UnalignedWrite> unalignedWrites;
+
+		/**
+		 @param bounceBuffs the pool of the buffers aligned to the block size at least, the buffer size should be a
+		 multiple of the block size
+		 @param capacity the max count of the handlers of each type to keep
+		 */
+		Pools(final DirectBufferPool bounceBuffs, final int capacity) {
+			this.bounceBuffs = bounceBuffs;
+			clampedReads = new ObjectPool<>(capacity, this::newClampedRead);
+			bouncedReads = new ObjectPool<>(capacity, this::newBouncedRead);
+			clampedWrites = new ObjectPool<>(capacity, this::newClampedWrite);
+			bouncedWrites = new ObjectPool<>(capacity, this::newBouncedWrite);
+			unalignedWrites = new ObjectPool<>(capacity, this::newUnalignedWrite);
+		}
+
+		private ClampedRead newClampedRead() {
+			return new ClampedRead(clampedReads);
+		}
+
+		private BouncedRead newBouncedRead() {
+			return new BouncedRead(bouncedReads, bounceBuffs);
+		}
+
+		private ClampedWrite newClampedWrite() {
+			return new ClampedWrite(clampedWrites);
+		}
+
+		private BouncedWrite newBouncedWrite() {
+			return new BouncedWrite(bouncedWrites, bounceBuffs);
+		}
+
+		private UnalignedWrite newUnalignedWrite() {
+			return new UnalignedWrite(unalignedWrites, bounceBuffs);
+		}
+
+		void clear() {
+			bounceBuffs.clear();
+			clampedReads.clear();
+			bouncedReads.clear();
+			clampedWrites.clear();
+			bouncedWrites.clear();
+			unalignedWrites.clear();
+		}
+	}
+
+	/**
+	 Restores the original limit of the buffer which has been extended to the block boundary
+	 */
+	private static final class ClampedRead
+	implements CompletionHandler<Integer, Object> {
+
+		private final ObjectPool<ClampedRead> pool;
+		private ByteBuffer dst;
+		private int start;
+		private int limit;
+		private CompletionHandler<Integer, Object> handler;
+
+		ClampedRead(final ObjectPool<ClampedRead> pool) {
+			this.pool = pool;
+		}
+
+		@SuppressWarnings("unchecked")
+		ClampedRead init(final ByteBuffer dst, final int limit, final CompletionHandler<Integer, ?> handler) {
+			this.dst = dst;
+			this.start = dst.position();
+			this.limit = limit;
+			this.handler = (CompletionHandler<Integer, Object>) handler;
+			return this;
+		}
+
+		@Override
+		public final void completed(final Integer n, final Object attach) {
+			final var dst = this.dst;
+			final var start = this.start;
+			final var limit = this.limit;
+			final var handler = this.handler;
+			this.dst = null;
+			this.handler = null;
+			pool.release(this);
+			final var end = dst.position();
+			dst.limit(limit);
+			if (n > 0 && end > limit) { // the extra bytes have been read
+				dst.position(limit);
+				handler.completed(limit - start, attach);
+			} else {
+				handler.completed(n, attach);
+			}
+		}
+
+		@Override
+		public final void failed(final Throwable exc, final Object attach) {
+			final var handler = this.handler;
+			dst.limit(limit);
+			this.dst = null;
+			this.handler = null;
+			pool.release(this);
+			handler.failed(exc, attach);
+		}
+	}
+
+	private static final class BouncedRead
+	implements CompletionHandler<Integer, Object> {
+
+		private final ObjectPool<BouncedRead> pool;
+		private final DirectBufferPool bounceBuffPool;
+		private ByteBuffer dst;
+		private ByteBuffer bounceBuff;
+		private int headSkip;
+		private CompletionHandler<Integer, Object> handler;
+
+		BouncedRead(final ObjectPool<BouncedRead> pool, final DirectBufferPool bounceBuffPool) {
+			this.pool = pool;
+			this.bounceBuffPool = bounceBuffPool;
+		}
+
+		@SuppressWarnings("unchecked")
+		BouncedRead init(
+			final ByteBuffer dst, final ByteBuffer bounceBuff, final int headSkip,
+			final CompletionHandler<Integer, ?> handler
+		) {
+			this.dst = dst;
+			this.bounceBuff = bounceBuff;
+			this.headSkip = headSkip;
+			this.handler = (CompletionHandler<Integer, Object>) handler;
+			return this;
+		}
+
+		private void release() {
+			bounceBuffPool.release(bounceBuff);
+			dst = null;
+			bounceBuff = null;
+			handler = null;
+			pool.release(this);
+		}
+
+		@Override
+		public final void completed(final Integer n, final Object attach) {
+			final var handler = this.handler;
+			if (n <= headSkip) { // the end of the file is reached before the requested position
+				release();
+				handler.completed(-1, attach);
+				return;
+			}
+			final var count = Math.min(n - headSkip, dst.remaining());
+			bounceBuff.limit(headSkip + count).position(headSkip);
+			dst.put(bounceBuff);
+			release();
+			handler.completed(count, attach);
+		}
+
+		@Override
+		public final void failed(final Throwable exc, final Object attach) {
+			final var handler = this.handler;
+			release();
+			handler.failed(exc, attach);
+		}
+	}
+
+	/**
+	 Restores the original limit of the buffer which has been reduced to the block boundary
+	 */
+	private static final class ClampedWrite
+	implements CompletionHandler<Integer, Object> {
+
+		private final ObjectPool<ClampedWrite> pool;
+		private ByteBuffer src;
+		private int limit;
+		private CompletionHandler<Integer, Object> handler;
+
+		ClampedWrite(final ObjectPool<ClampedWrite> pool) {
+			this.pool = pool;
+		}
+
+		@SuppressWarnings("unchecked")
+		ClampedWrite init(final ByteBuffer src, final int limit, final CompletionHandler<Integer, ?> handler) {
+			this.src = src;
+			this.limit = limit;
+			this.handler = (CompletionHandler<Integer, Object>) handler;
+			return this;
+		}
+
+		private CompletionHandler<Integer, Object> release() {
+			final var handler = this.handler;
+			src.limit(limit);
+			src = null;
+			this.handler = null;
+			pool.release(this);
+			return handler;
+		}
+
+		@Override
+		public final void completed(final Integer n, final Object attach) {
+			release().completed(n, attach);
+		}
+
+		@Override
+		public final void failed(final Throwable exc, final Object attach) {
+			release().failed(exc, attach);
+		}
+	}
+
+	/**
+	 Writes the aligned file region from the unaligned buffer: copies the content to the bounce buffer and writes it.
+	 The count of the bytes written is limited by the bounce buffer size and aligned to the block size.
+	 */
+	private static final class BouncedWrite
+	implements CompletionHandler<Integer, Object> {
+
+		private final ObjectPool<BouncedWrite> pool;
+		private final DirectBufferPool bounceBuffPool;
+		private DirectIoChannel chan;
+		private ByteBuffer src;
+		private long position;
+		private Object attach;
+		private CompletionHandler<Integer, Object> handler;
+		private ByteBuffer bounceBuff;
+		private int count;
+
+		BouncedWrite(final ObjectPool<BouncedWrite> pool, final DirectBufferPool bounceBuffPool) {
+			this.pool = pool;
+			this.bounceBuffPool = bounceBuffPool;
+		}
+
+		@SuppressWarnings("unchecked")
+		BouncedWrite init(
+			final DirectIoChannel chan, final ByteBuffer src, final long position, final Object attach,
+			final CompletionHandler<Integer, ?> handler
+		) {
+			this.chan = chan;
+			this.src = src;
+			this.position = position;
+			this.attach = attach;
+			this.handler = (CompletionHandler<Integer, Object>) handler;
+			return this;
+		}
+
+		void start() {
+			bounceBuff = bounceBuffPool.lease();
+			count = (int) Math.min(src.remaining() & ~chan.blockMask, bounceBuff.capacity());
+			final var srcLimit = src.limit();
+			src.limit(src.position() + count);
+			bounceBuff.put(src);
+			src.limit(srcLimit);
+			bounceBuff.flip();
+			chan.channel.write(bounceBuff, position, null, this);
+		}
+
+		private void release() {
+			bounceBuffPool.release(bounceBuff);
+			chan = null;
+			src = null;
+			attach = null;
+			handler = null;
+			bounceBuff = null;
+			pool.release(this);
+		}
+
+		@Override
+		public final void completed(final Integer n, final Object ignored) {
+			if (bounceBuff.hasRemaining()) { // short write
+				chan.channel.write(bounceBuff, position + bounceBuff.position(), null, this);
+				return;
+			}
+			final var count = this.count;
+			final var attach = this.attach;
+			final var handler = this.handler;
+			release();
+			handler.completed(count, attach);
+		}
+
+		@Override
+		public final void failed(final Throwable exc, final Object ignored) {
+			final var attach = this.attach;
+			final var handler = this.handler;
+			release();
+			handler.failed(exc, attach);
+		}
+	}
+
+	/**
+	 The read-modify-write of the unaligned content: reads the partial head block, reads the partial tail block, copies
+	 the content between them, writes the whole aligned region, truncates the file if it has been extended by the tail
+	 padding. The count of the bytes written is limited by the bounce buffer size.
+	 */
+	private static final class UnalignedWrite
+	implements CompletionHandler<Integer, Object> {
+
+		private static final int STAGE_HEAD_READ = 0;
+		private static final int STAGE_TAIL_READ = 1;
+		private static final int STAGE_WRITE = 2;
+
+		private final ObjectPool<UnalignedWrite> pool;
+		private final DirectBufferPool bounceBuffPool;
+		private DirectIoChannel chan;
+		private ByteBuffer src;
+		private Object attach;
+		private CompletionHandler<Integer, Object> handler;
+		private long alignedPos;
+		private int headSkip;
+		private int count;
+		private int alignedLen;
+		private ByteBuffer bounceBuff;
+		private long sizeBefore;
+		private int stage;
+
+		UnalignedWrite(final ObjectPool<UnalignedWrite> pool, final DirectBufferPool bounceBuffPool) {
+			this.pool = pool;
+			this.bounceBuffPool = bounceBuffPool;
+		}
+
+		@SuppressWarnings("unchecked")
+		UnalignedWrite init(
+			final DirectIoChannel chan, final ByteBuffer src, final long position, final Object attach,
+			final CompletionHandler<Integer, ?> handler
+		) {
+			this.chan = chan;
+			this.src = src;
+			this.attach = attach;
+			this.handler = (CompletionHandler<Integer, Object>) handler;
+			this.headSkip = (int) (position & chan.blockMask);
+			this.alignedPos = position - headSkip;
+			// the bounce buffer capacity is a multiple of the block size, so the end is aligned if the count is limited
+			this.count = Math.min(src.remaining(), bounceBuffPool.buffSize() - headSkip);
+			this.alignedLen = (int) chan.alignUp(headSkip + count);
+			return this;
+		}
+
+		void start() {
+			bounceBuff = bounceBuffPool.lease();
+			try {
+				sizeBefore = chan.channel.size();
+			} catch (final IOException e) {
+				failed(e, null);
+				return;
+			}
+			if (headSkip > 0) {
+				readBlock(STAGE_HEAD_READ, 0);
+			} else {
+				readTailOrWrite();
+			}
+		}
+
+		private void readBlock(final int stage, final int offset) {
+			this.stage = stage;
+			final var blockSize = chan.blockSize;
+			if (alignedPos + offset >= sizeBefore) { // nothing to read, beyond the end of the file
+				bounceBuff.limit(offset + blockSize);
+				zeroFill(offset, offset + blockSize);
+				bounceBuff.position(offset + blockSize);
+				completed(-1, null);
+			} else {
+				bounceBuff.limit(offset + blockSize).position(offset);
+				chan.channel.read(bounceBuff, alignedPos + offset, null, this);
+			}
+		}
+
+		private void zeroFill(final int from, final int to) {
+			for (var i = from; i < to; i ++) {
+				bounceBuff.put(i, (byte) 0);
+			}
+		}
+
+		private void readTailOrWrite() {
+			final var tailBlockOffset = alignedLen - chan.blockSize;
+			final var end = headSkip + count;
+			if (end < alignedLen && (headSkip == 0 || tailBlockOffset > 0)) {
+				readBlock(STAGE_TAIL_READ, tailBlockOffset);
+			} else {
+				write();
+			}
+		}
+
+		private void write() {
+			stage = STAGE_WRITE;
+			final var srcLimit = src.limit();
+			src.limit(src.position() + count);
+			bounceBuff.limit(headSkip + count).position(headSkip);
+			bounceBuff.put(src);
+			src.limit(srcLimit);
+			bounceBuff.limit(alignedLen).position(0);
+			chan.channel.write(bounceBuff, alignedPos, null, this);
+		}
+
+		/**
+		 Releases the bounce buffer and this handler, starts the next pending read-modify-write of the channel if any
+		 */
+		private void release() {
+			final var chan = this.chan;
+			bounceBuffPool.release(bounceBuff);
+			this.chan = null;
+			src = null;
+			attach = null;
+			handler = null;
+			bounceBuff = null;
+			pool.release(this);
+			chan.unalignedWriteDone();
+		}
+
+		@Override
+		public final void completed(final Integer n, final Object ignored) {
+			switch (stage) {
+				case STAGE_HEAD_READ:
+					if (bounceBuff.hasRemaining()) { // the end of the file is reached
+						zeroFill(bounceBuff.position(), chan.blockSize);
+					}
+					readTailOrWrite();
+					break;
+				case STAGE_TAIL_READ:
+					if (bounceBuff.hasRemaining()) {
+						zeroFill(bounceBuff.position(), alignedLen);
+					}
+					write();
+					break;
+				case STAGE_WRITE:
+					if (bounceBuff.hasRemaining()) { // short write
+						chan.channel.write(bounceBuff, alignedPos + bounceBuff.position(), null, this);
+						return;
+					}
+					final var end = alignedPos + headSkip + count;
+					final var alignedEnd = alignedPos + alignedLen;
+					try {
+						if (end < alignedEnd && alignedEnd > sizeBefore && chan.channel.size() == alignedEnd) {
+							chan.channel.truncate(Math.max(sizeBefore, end));
+						}
+					} catch (final IOException e) {
+						failed(e, null);
+						return;
+					}
+					final var count = this.count;
+					final var attach = this.attach;
+					final var handler = this.handler;
+					release();
+					handler.completed(count, attach);
+					break;
+			}
+		}
+
+		@Override
+		public final void failed(final Throwable exc, final Object ignored) {
+			final var attach = this.attach;
+			final var handler = this.handler;
+			release();
+			handler.failed(exc, attach);
+		}
+	}
+}
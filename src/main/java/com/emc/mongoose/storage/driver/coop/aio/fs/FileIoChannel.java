@@ -0,0 +1,55 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+
+/**
+ The asynchronous file channel wrapper which may be synced
+ */
+final class FileIoChannel
+implements SyncableChannel {
+
+	private final AsynchronousFileChannel channel;
+
+	FileIoChannel(final AsynchronousFileChannel channel) {
+		this.channel = channel;
+	}
+
+	@Override
+	public <A> void read(
+		final ByteBuffer dst, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		channel.read(dst, position, attach, handler);
+	}
+
+	@Override
+	public <A> void write(
+		final ByteBuffer src, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		channel.write(src, position, attach, handler);
+	}
+
+	@Override
+	public void sync(final boolean metaData)
+	throws IOException {
+		channel.force(metaData);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	@Override
+	public void close()
+	throws IOException {
+		channel.close();
+	}
+
+	@Override
+	public String toString() {
+		return channel.toString();
+	}
+}
@@ -1,24 +1,37 @@
 package com.emc.mongoose.storage.driver.coop.aio.fs;
 
 import com.emc.mongoose.base.config.IllegalConfigurationException;
+import com.emc.mongoose.base.data.DataCorruptionException;
 import com.emc.mongoose.base.data.DataInput;
 import com.emc.mongoose.base.item.DataItem;
 import com.emc.mongoose.base.item.Item;
+import com.emc.mongoose.base.item.PathItem;
 import com.emc.mongoose.base.item.ItemFactory;
 import com.emc.mongoose.base.item.io.AsyncChannel;
 import com.emc.mongoose.base.item.op.OpType;
 import com.emc.mongoose.base.item.op.Operation;
 import com.emc.mongoose.base.item.op.data.DataOperation;
 import com.emc.mongoose.base.item.op.path.PathOperation;
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
 import com.emc.mongoose.base.logging.LogUtil;
+import com.emc.mongoose.base.logging.Loggers;
 import com.emc.mongoose.base.storage.Credential;
 import static com.emc.mongoose.base.Exceptions.throwUncheckedIfInterrupted;
 import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.CREATE_OPEN_OPT;
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.DIRECT_CREATE_OPEN_OPT;
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.DIRECT_IO_ALIGNMENT_MAX;
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.DIRECT_READ_OPEN_OPT;
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.DIRECT_WRITE_OPEN_OPT;
 import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.FS;
 import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.FS_PROVIDER;
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.MMAP_CREATE_OPEN_OPT;
 import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.READ_OPEN_OPT;
 import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.WRITE_OPEN_OPT;
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.ZERO_COPY_CHUNK_SIZE;
 import com.emc.mongoose.storage.driver.coop.aio.AioStorageDriverBase;
+import com.emc.mongoose.storage.driver.coop.aio.DirectBufferPool;
+import com.emc.mongoose.storage.driver.coop.aio.IoExecutor;
+import com.emc.mongoose.storage.driver.coop.aio.IoMetrics;
 
 import com.github.akurilov.confuse.Config;
 
@@ -26,20 +39,78 @@ import org.apache.logging.log4j.Level;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.FileSystemException;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class FileStorageDriver<I extends Item, O extends Operation<I>>
 extends AioStorageDriverBase<I, O> {
 
+	private static final int URING_ENTRIES = 0x4_00;
+
 	private final Map<String, File> dstParentDirs = new ConcurrentHashMap<>();
+	private final IoExecutor ioExecutor;
+	private final ChannelCache channelCache;
+	private final Set<OpenOption> createOpenOpts;
+	private final Set<OpenOption> readOpenOpts;
+	private final Set<OpenOption> writeOpenOpts;
+	private final IoEngine ioEngine;
+	private final Executor blockingExecutor;
+	private final SyncMode syncMode;
+	private final GroupCommit<O> groupCommit;
+	private final int deleteThreadCount;
+	private final int deleteBatchSize;
+	private final BlockingQueue<O> deleteQueue = new LinkedBlockingQueue<>();
+	private final AtomicBoolean deleteWorkersStarted = new AtomicBoolean(false);
+	// the delete and the path executors are created on the first demand, most of the load steps don't need them
+	private final Object lazyExecutorsLock = new Object();
+	private ExecutorService deleteExecutor = null; // guarded by the lazy executors lock
+	private volatile ForkJoinPool pathOpExecutor = null; // written under the lazy executors lock
+	private boolean lazyExecutorsClosed = false; // guarded by the lazy executors lock
+	private final int pathThreadCount;
+	private final ForkJoinPool listingExecutor;
+	private final int pathTreeDepth;
+	private final int pathTreeFanOut;
+	private final ExecutorService zeroCopyExecutor;
+	private volatile boolean zeroCopyEnabled;
+	// the copy operations which zero copy failed before any byte transferred, to be resubmitted for the buffered copy
+	private final Set<DataOperation<? extends DataItem>> zeroCopyFallbackOps = Collections.newSetFromMap(
+		Collections.synchronizedMap(new IdentityHashMap<>())
+	);
+	private final long mmapSizeMin;
+	private final long mmapSizeMax;
+	private final ExecutorService mmapExecutor;
+	private final long smallSizeMax;
+	private final int smallThreadCount;
+	private final int smallBatchSize;
+	private final BlockingQueue<DataOperation<? extends DataItem>> smallQueue = new LinkedBlockingQueue<>();
+	private final ExecutorService smallExecutor;
+	private final AtomicBoolean smallWorkersStarted = new AtomicBoolean(false);
+	private final Object listingLock = new Object();
+	private ListingHelper.ListingCursor listingCursor = null; // guarded by the listing lock
+	private ListingTreeWalker<I> listingTreeWalker = null; // guarded by the listing lock
+	private final int listDepth;
 
 	public FileStorageDriver(
 		final String testStepId, final DataInput dataInput, final Config storageConfig, final boolean verifyFlag,
@@ -47,17 +118,260 @@ extends AioStorageDriverBase<I, O> {
 	) throws IllegalConfigurationException {
 		super(testStepId, dataInput, storageConfig, verifyFlag, batchSize);
 		requestAuthTokenFunc = null; // disable
+		final var ioConfig = storageConfig.configVal("driver-aio-io");
+		final var ioThreads = ioConfig.intVal("threads");
+		ioExecutor = new IoExecutor(
+			testStepId + "-io", ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors(),
+			ioConfig.stringVal("cpus"), metrics
+		);
+		final var cacheSize = storageConfig.intVal("driver-aio-cache-size");
+		if (cacheSize < 0) {
+			throw new IllegalConfigurationException("Invalid channel cache size: " + cacheSize);
+		}
+		final var directIo = storageConfig.boolVal("driver-aio-direct");
+		if (directIo) {
+			createOpenOpts = DIRECT_CREATE_OPEN_OPT;
+			readOpenOpts = DIRECT_READ_OPEN_OPT;
+			writeOpenOpts = DIRECT_WRITE_OPEN_OPT;
+		} else {
+			createOpenOpts = CREATE_OPEN_OPT;
+			readOpenOpts = READ_OPEN_OPT;
+			writeOpenOpts = WRITE_OPEN_OPT;
+		}
+		final var ioEngineName = ioConfig.stringVal("engine");
+		if ("vthread".equals(ioEngineName)) {
+			blockingExecutor = newBlockingExecutor(testStepId, directIo);
+			ioEngine = newIoEngine(testStepId, "nio", directIo); // for the operations not supported by the blocking I/O
+		} else {
+			blockingExecutor = null;
+			ioEngine = newIoEngine(testStepId, ioEngineName, directIo);
+		}
+		channelCache = cacheSize > 0 ? new ChannelCache(cacheSize, ioEngine::open, testStepId) : null;
+		final var syncConfig = storageConfig.configVal("driver-aio-sync");
+		final var syncModeName = syncConfig.stringVal("mode");
+		try {
+			syncMode = SyncMode.valueOf(syncModeName.toUpperCase());
+		} catch (final IllegalArgumentException e) {
+			throw new IllegalConfigurationException("Unknown sync mode: " + syncModeName);
+		}
+		if (SyncMode.GROUP.equals(syncMode)) {
+			final var syncPeriod = syncConfig.intVal("period");
+			if (syncPeriod < 0) {
+				throw new IllegalConfigurationException(
+					"Invalid sync period value: " + syncPeriod + ", should not be less than 0"
+				);
+			}
+			final var syncThreads = syncConfig.intVal("threads");
+			if (syncThreads < 0) {
+				throw new IllegalConfigurationException(
+					"Invalid sync threads count: " + syncThreads + ", should not be less than 0"
+				);
+			}
+			groupCommit = new GroupCommit<>(
+				testStepId, syncPeriod, syncThreads > 0 ? syncThreads : Runtime.getRuntime().availableProcessors(),
+				this::synced
+			);
+		} else {
+			groupCommit = null;
+		}
+		final var deleteConfig = storageConfig.configVal("driver-aio-delete");
+		final var deleteThreads = deleteConfig.intVal("threads");
+		deleteThreadCount = deleteThreads > 0 ? deleteThreads : Runtime.getRuntime().availableProcessors();
+		deleteBatchSize = batchSize;
+		final var pathConfig = storageConfig.configVal("driver-aio-path");
+		final var pathThreads = pathConfig.intVal("threads");
+		pathTreeDepth = pathConfig.intVal("tree-depth");
+		pathTreeFanOut = pathConfig.intVal("tree-fanOut");
+		if (pathTreeDepth < 0 || pathTreeFanOut < 0) {
+			throw new IllegalConfigurationException(
+				"Invalid directory tree depth/fan-out: " + pathTreeDepth + "/" + pathTreeFanOut
+			);
+		}
+		pathThreadCount = pathThreads;
+		listDepth = storageConfig.intVal("driver-aio-list-depth");
+		// the walk tasks block while the listing consumer doesn't take the items so they shouldn't occupy the path pool
+		listingExecutor = listDepth == 0 ? null : newForkJoinPool(testStepId + "-list-", pathThreads);
+		final var copyConfig = storageConfig.configVal("driver-aio-copy");
+		zeroCopyEnabled = copyConfig.boolVal("zeroCopy");
+		if (zeroCopyEnabled && directIo) {
+			zeroCopyEnabled = false;
+			Loggers.MSG.info("{}: zero copy is disabled because the direct I/O is enabled", testStepId);
+		}
+		if (zeroCopyEnabled) {
+			final var copyThreads = copyConfig.intVal("threads");
+			zeroCopyExecutor = Executors.newFixedThreadPool(
+				copyThreads > 0 ? copyThreads : Runtime.getRuntime().availableProcessors(),
+				new LogContextThreadFactory(testStepId + "-copy", true)
+			);
+		} else {
+			zeroCopyExecutor = null;
+		}
+		final var mmapConfig = storageConfig.configVal("driver-aio-mmap");
+		final var mmapSizeConfig = mmapConfig.configVal("size");
+		mmapSizeMin = mmapSizeConfig.longVal("min");
+		mmapSizeMax = mmapSizeConfig.longVal("max");
+		if (mmapSizeMin < 0 || mmapSizeMax < 0 || mmapSizeMax > Integer.MAX_VALUE) {
+			throw new IllegalConfigurationException(
+				"Invalid memory mapped file size range: [" + mmapSizeMin + ", " + mmapSizeMax + "]"
+			);
+		}
+		if (mmapSizeMax > 0 && directIo) {
+			mmapExecutor = null;
+			Loggers.MSG.info("{}: memory mapping is disabled because the direct I/O is enabled", testStepId);
+		} else if (mmapSizeMax > 0 && mmapSizeMin <= mmapSizeMax) {
+			final var mmapThreads = mmapConfig.intVal("threads");
+			mmapExecutor = Executors.newFixedThreadPool(
+				mmapThreads > 0 ? mmapThreads : Runtime.getRuntime().availableProcessors(),
+				new LogContextThreadFactory(testStepId + "-mmap", true)
+			);
+		} else {
+			mmapExecutor = null;
+		}
+		final var smallConfig = storageConfig.configVal("driver-aio-small");
+		final var smallSize = smallConfig.longVal("size");
+		if (smallSize < 0) {
+			throw new IllegalConfigurationException(
+				"Invalid small file size value: " + smallSize + ", should not be less than 0"
+			);
+		}
+		if (smallSize > 0 && directIo) {
+			smallSizeMax = 0;
+			Loggers.MSG.info("{}: small files fast path is disabled because the direct I/O is enabled", testStepId);
+		} else {
+			smallSizeMax = smallSize;
+		}
+		final var smallThreads = smallConfig.intVal("threads");
+		if (smallThreads < 0) {
+			throw new IllegalConfigurationException(
+				"Invalid small files threads count: " + smallThreads + ", should not be less than 0"
+			);
+		}
+		smallThreadCount = smallThreads;
+		smallBatchSize = batchSize;
+		if (smallSizeMax > 0 && smallThreadCount > 0) {
+			smallExecutor = Executors.newFixedThreadPool(
+				smallThreadCount, new LogContextThreadFactory(testStepId + "-small", true)
+			);
+		} else {
+			smallExecutor = null;
+		}
+	}
+
+	private static ForkJoinPool newForkJoinPool(final String threadNamePrefix, final int threads) {
+		return new ForkJoinPool(
+			threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+			pool -> {
+				final var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName(threadNamePrefix + thread.getPoolIndex());
+				thread.setDaemon(true);
+				return thread;
+			},
+			null, true
+		);
+	}
+
+	/**
+	 @return the I/O engine of the given name, the default (nio) one if the io_uring engine is not available
+	 */
+	private IoEngine newIoEngine(final String stepId, final String engineName, final boolean directIo)
+	throws IllegalConfigurationException {
+		final var ioBuffPoolCapacity = concurrencyLimit > 0 ?
+			Math.min(concurrencyLimit, IO_BUFF_POOL_CAPACITY_MAX) : IO_BUFF_POOL_CAPACITY_MAX;
+		if ("uring".equals(engineName)) {
+			if (directIo) {
+				Loggers.MSG.warn(
+					"{}: the io_uring engine doesn't support the direct I/O, falling back to the nio engine", stepId
+				);
+			} else {
+				try {
+					final var bounceBuffPool = new DirectBufferPool(
+						IO_CHUNK_SIZE, ioBuffPoolCapacity, ioBuffPoolCapacity
+					);
+					return new UringIoEngine(stepId, URING_ENTRIES, bounceBuffPool);
+				} catch (final IOException e) {
+					LogUtil.exception(
+						Level.WARN, e, "{}: the io_uring engine is not available, falling back to the nio engine",
+						stepId
+					);
+				}
+			}
+		} else if (!"nio".equals(engineName)) {
+			throw new IllegalConfigurationException("Unknown I/O engine: " + engineName);
+		}
+		final DirectIoChannel.Pools directIoPools;
+		if (directIo) {
+			final var bounceBuffPool = new DirectBufferPool(
+				IO_CHUNK_SIZE, ioBuffPoolCapacity, ioBuffPoolCapacity, DIRECT_IO_ALIGNMENT_MAX
+			);
+			directIoPools = new DirectIoChannel.Pools(bounceBuffPool, ioBuffPoolCapacity);
+		} else {
+			directIoPools = null;
+		}
+		return new NioIoEngine(ioExecutor, directIoPools);
+	}
+
+	/**
+	 @return the executor running each blocking operation in the new virtual thread, null if the virtual threads are not
+	 available
+	 */
+	private static Executor newBlockingExecutor(final String stepId, final boolean directIo) {
+		if (directIo) {
+			Loggers.MSG.warn(
+				"{}: the vthread engine doesn't support the direct I/O, falling back to the nio engine", stepId
+			);
+			return null;
+		}
+		try {
+			return VirtualThreads.newExecutor(stepId + "-vthread-");
+		} catch (final UnsupportedOperationException e) {
+			LogUtil.exception(
+				Level.WARN, e, "{}: the vthread engine requires JDK 21 or higher, falling back to the nio engine", stepId
+			);
+			return null;
+		}
+	}
+
+	@Override
+	protected void flushSubmitted() {
+		ioEngine.flush();
+	}
+
+	static Path itemPath(final String parentPath, final String itemName) {
+		if (parentPath == null || parentPath.isEmpty() || itemName.startsWith(parentPath)) {
+			return FS.getPath(itemName);
+		} else {
+			return FS.getPath(parentPath, itemName);
+		}
+	}
+
+	/**
+	 @return the path of the existing item to delete or to list, resolved against the destination path if any or the
+	 source path otherwise
+	 */
+	static Path targetPath(final Operation<? extends Item> op) {
+		final var dstPath = op.dstPath();
+		final var parentPath = dstPath == null || dstPath.isEmpty() ? op.srcPath() : dstPath;
+		return itemPath(parentPath, op.item().name());
 	}
 
 	protected AsyncChannel openSourceChannel(final DataOperation<? extends DataItem> op) {
 		final String srcPath = op.srcPath();
+		final String fileItemName = op.item().name();
+		final Path srcFilePath;
 		if (srcPath == null || srcPath.isEmpty()) {
-			return null;
+			if (OpType.CREATE.equals(op.type())) {
+				return null; // not a copy
+			}
+			srcFilePath = FS.getPath(fileItemName);
+		} else {
+			srcFilePath = fileItemName.startsWith(srcPath) ? FS.getPath(fileItemName) : FS.getPath(srcPath, fileItemName);
 		}
-		final String fileItemName = op.item().name();
-		final Path srcFilePath = fileItemName.startsWith(srcPath) ? FS.getPath(fileItemName) : FS.getPath(srcPath, fileItemName);
 		try {
-			return AsyncChannel.wrap(FS_PROVIDER.newAsynchronousFileChannel(srcFilePath, READ_OPEN_OPT, null));
+			if (channelCache == null) {
+				return ioEngine.open(srcFilePath, readOpenOpts);
+			} else {
+				return channelCache.acquire(srcFilePath, readOpenOpts);
+			}
 		} catch (final IOException e) {
 			LogUtil.exception(Level.WARN, e, "Failed to open the source channel for the path @ \"{}\"", srcFilePath);
 			op.status(Operation.Status.FAIL_IO);
@@ -65,22 +379,32 @@ extends AioStorageDriverBase<I, O> {
 		}
 	}
 
-	protected AsyncChannel openDestinationChannel(final DataOperation<? extends DataItem> dataOp) {
+	/**
+	 @return the destination path for the item, creates the parent directory if necessary
+	 */
+	private Path destinationPath(final DataOperation<? extends DataItem> dataOp) {
 		final var fileItemName = dataOp.item().name();
+		final var dstPath = dataOp.dstPath();
+		if (dstPath == null || dstPath.isEmpty() || fileItemName.startsWith(dstPath)) {
+			return FS.getPath(fileItemName);
+		} else {
+			dstParentDirs.computeIfAbsent(dstPath, DirIoHelper::createParentDir);
+			return FS.getPath(dstPath, fileItemName);
+		}
+	}
+
+	protected AsyncChannel openDestinationChannel(final DataOperation<? extends DataItem> dataOp) {
 		final var opType = dataOp.type();
 		final var dstPath = dataOp.dstPath();
-		final Path itemPath;
 		try {
-			if (dstPath == null || dstPath.isEmpty() || fileItemName.startsWith(dstPath)) {
-				itemPath = FS.getPath(fileItemName);
-			} else {
-				dstParentDirs.computeIfAbsent(dstPath, DirIoHelper::createParentDir);
-				itemPath = FS.getPath(dstPath, fileItemName);
-			}
+			final var itemPath = destinationPath(dataOp);
 			if (OpType.CREATE.equals(opType)) {
-				return AsyncChannel.wrap(FS_PROVIDER.newAsynchronousFileChannel(itemPath, CREATE_OPEN_OPT, null));
+				invalidateCachedChannels(itemPath);
+				return ioEngine.open(itemPath, createOpenOpts);
+			} else if (channelCache == null) {
+				return ioEngine.open(itemPath, writeOpenOpts);
 			} else {
-				return AsyncChannel.wrap(FS_PROVIDER.newAsynchronousFileChannel(itemPath, WRITE_OPEN_OPT, null));
+				return channelCache.acquire(itemPath, writeOpenOpts);
 			}
 		} catch (final AccessDeniedException e) {
 			dataOp.status(Operation.Status.RESP_FAIL_AUTH);
@@ -108,6 +432,609 @@ extends AioStorageDriverBase<I, O> {
 		return null;
 	}
 
+	/**
+	 Drops the cached channels for the file being deleted or recreated so the subsequent operations don't use the stale
+	 file handles
+	 */
+	private void invalidateCachedChannels(final Path filePath) {
+		if (channelCache != null) {
+			channelCache.invalidate(filePath, readOpenOpts);
+			channelCache.invalidate(filePath, writeOpenOpts);
+		}
+	}
+
+	/**
+	 Copies the file in the dedicated thread pool using {@link FileChannel#transferTo(long, long,
+	 java.nio.channels.WritableByteChannel)} so the content doesn't pass through the user space if the kernel supports
+	 this. The progress is reported after each chunk. If the first chunk transfer fails the operation falls back to the
+	 buffered copy which reports the failure if it's not specific to the zero copy. The zero copy is disabled for the
+	 whole driver only if the file system provider doesn't support it at all.
+	 */
+	@Override
+	protected boolean invokeZeroCopyData(final DataOperation<? extends DataItem> dataOp) {
+		if (!zeroCopyEnabled) {
+			return false;
+		}
+		final var srcPath = dataOp.srcPath();
+		if (srcPath == null || srcPath.isEmpty()) {
+			return false;
+		}
+		if (!zeroCopyFallbackOps.isEmpty() && zeroCopyFallbackOps.remove(dataOp)) {
+			return false;
+		}
+		zeroCopyExecutor.execute(() -> runZeroCopy(dataOp));
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void runZeroCopy(final DataOperation<? extends DataItem> dataOp) {
+		final var srcFilePath = itemPath(dataOp.srcPath(), dataOp.item().name());
+		var countBytesDone = dataOp.countBytesDone();
+		var transferStarted = false;
+		final var dstFilePath = destinationPath(dataOp);
+		if (countBytesDone == 0) {
+			invalidateCachedChannels(dstFilePath);
+		}
+		try (
+			final var srcChan = FS_PROVIDER.newFileChannel(srcFilePath, READ_OPEN_OPT);
+			final var dstChan = FS_PROVIDER.newFileChannel(
+				dstFilePath, countBytesDone > 0 ? WRITE_OPEN_OPT : CREATE_OPEN_OPT
+			)
+		) {
+			final var contentSize = dataOp.item().size();
+			dstChan.position(countBytesDone);
+			while (countBytesDone < contentSize) {
+				final long n;
+				try {
+					n = srcChan.transferTo(
+						countBytesDone, Math.min(ZERO_COPY_CHUNK_SIZE, contentSize - countBytesDone), dstChan
+					);
+				} catch (final UnsupportedOperationException e) {
+					zeroCopyEnabled = false;
+					LogUtil.exception(
+						Level.WARN, e, "{}: zero copy is not supported, falling back to the buffered copy", stepId
+					);
+					handleCompleted((O) dataOp); // will resubmit because the op state is "active"
+					return;
+				} catch (final IOException e) {
+					if (transferStarted) {
+						throw e;
+					}
+					LogUtil.exception(
+						Level.DEBUG, e, "{}: zero copy of the file \"{}\" failed, falling back to the buffered copy",
+						stepId, srcFilePath
+					);
+					zeroCopyFallbackOps.add(dataOp);
+					handleCompleted((O) dataOp); // will resubmit because the op state is "active"
+					return;
+				}
+				if (n == 0) {
+					throw new IOException(
+						"The source file \"" + srcFilePath + "\" size is less than expected: " + contentSize
+					);
+				}
+				transferStarted = true;
+				countBytesDone += n;
+				dataOp.countBytesDone(countBytesDone);
+			}
+			if (!SyncMode.NONE.equals(syncMode)) {
+				dstChan.force(SyncMode.FULL.equals(syncMode));
+			}
+		} catch (final AccessDeniedException e) {
+			dataOp.status(Operation.Status.RESP_FAIL_AUTH);
+			LogUtil.exception(Level.DEBUG, e, "{}: access denied to copy the file \"{}\"", stepId, srcFilePath);
+			finishOperation((O) dataOp, null, null);
+			return;
+		} catch (final IOException e) {
+			dataOp.status(Operation.Status.FAIL_IO);
+			LogUtil.exception(Level.DEBUG, e, "{}: failed to copy the file \"{}\"", stepId, srcFilePath);
+			finishOperation((O) dataOp, null, null);
+			return;
+		}
+		completeOperation((O) dataOp, null, null);
+	}
+
+	/**
+	 Executes the whole create or read operation in the virtual thread using the blocking {@link FileChannel}: opens the
+	 file, writes/reads the content chunk by chunk and closes the file. The concurrency is still limited by the
+	 concurrency throttle. The copy, the update and the read with the verification of the updated item are not
+	 supported and are executed using the I/O engine. The written file is synced by the same virtual thread, so the
+	 group sync mode is equivalent to the data sync mode here.
+	 The files of the configured size range are created/read via the memory mapping in the dedicated thread pool
+	 instead, regardless of the I/O engine. The small files are created/read the same blocking way but in the
+	 submitting thread or in batches by the small files workers, so the operation completes without any completion
+	 handler invocation and resubmission.
+	 */
+	@Override
+	protected boolean invokeBlockingData(final DataOperation<? extends DataItem> dataOp)
+	throws IOException {
+		final var size = dataOp.item().size();
+		final var freshFlag = dataOp.countBytesDone() == 0;
+		final var smallFlag = smallSizeMax > 0 && freshFlag && size <= smallSizeMax;
+		final var mmapFlag = !smallFlag && mmapExecutor != null && freshFlag
+			&& size >= mmapSizeMin && size <= mmapSizeMax;
+		if (!smallFlag && !mmapFlag && blockingExecutor == null) {
+			return false;
+		}
+		switch (dataOp.type()) {
+			case CREATE:
+				final var srcPath = dataOp.srcPath();
+				if (srcPath != null && !srcPath.isEmpty()) {
+					return false;
+				}
+				break;
+			case READ:
+				if (verifyFlag && dataOp.item().isUpdated()) {
+					return false;
+				}
+				break;
+			default:
+				return false;
+		}
+		if (smallFlag) {
+			if (smallExecutor == null) {
+				runBlockingData(dataOp, false);
+			} else {
+				if (smallWorkersStarted.compareAndSet(false, true)) {
+					for (var i = 0; i < smallThreadCount; i ++) {
+						smallExecutor.submit(this::runSmallWorker);
+					}
+				}
+				smallQueue.add(dataOp);
+			}
+		} else if (mmapFlag) {
+			mmapExecutor.execute(() -> runBlockingData(dataOp, true));
+		} else {
+			blockingExecutor.execute(() -> runBlockingData(dataOp, false));
+		}
+		return true;
+	}
+
+	private void runSmallWorker() {
+		final List<DataOperation<? extends DataItem>> batch = new ArrayList<>(smallBatchSize);
+		try {
+			while (true) {
+				batch.add(smallQueue.take());
+				smallQueue.drainTo(batch, smallBatchSize - 1);
+				for (final var dataOp : batch) {
+					runBlockingData(dataOp, false);
+				}
+				batch.clear();
+			}
+		} catch (final InterruptedException ignored) {
+			// the driver is closing
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void runBlockingData(final DataOperation<? extends DataItem> dataOp, final boolean mmapFlag) {
+		final var readFlag = OpType.READ.equals(dataOp.type());
+		Path filePath = null;
+		try {
+			final boolean done;
+			if (readFlag) {
+				filePath = itemPath(dataOp.srcPath(), dataOp.item().name());
+				try (final var channel = openBlocking(filePath, READ_OPEN_OPT)) {
+					done = mmapFlag ? readMapped(dataOp, channel) : readBlocking(dataOp, channel);
+					closeBlocking(channel);
+				}
+			} else {
+				filePath = destinationPath(dataOp);
+				final var countBytesDone = dataOp.countBytesDone();
+				if (countBytesDone == 0) {
+					invalidateCachedChannels(filePath);
+				}
+				final var openOpts = mmapFlag ? MMAP_CREATE_OPEN_OPT : countBytesDone > 0 ? WRITE_OPEN_OPT : CREATE_OPEN_OPT;
+				try (final var channel = openBlocking(filePath, openOpts)) {
+					if (mmapFlag) {
+						writeMapped(dataOp, channel);
+					} else {
+						writeBlocking(dataOp, channel);
+					}
+					if (!SyncMode.NONE.equals(syncMode)) {
+						channel.force(SyncMode.FULL.equals(syncMode));
+					}
+					closeBlocking(channel);
+				}
+				done = true;
+			}
+			if (done) {
+				completeOperation((O) dataOp, null, null);
+			} else {
+				finishOperation((O) dataOp, null, null);
+			}
+		} catch (final AccessDeniedException e) {
+			dataOp.status(Operation.Status.RESP_FAIL_AUTH);
+			LogUtil.exception(Level.DEBUG, e, "{}: access denied to the file \"{}\"", stepId, filePath);
+			finishOperation((O) dataOp, null, null);
+		} catch (final FileSystemException e) {
+			if (!readFlag && e.getFile() != null && new File(e.getFile()).getFreeSpace() == 0) {
+				dataOp.status(Operation.Status.RESP_FAIL_SPACE);
+				LogUtil.exception(Level.DEBUG, e, "{}: no free space for the file \"{}\"", stepId, filePath);
+			} else {
+				dataOp.status(Operation.Status.FAIL_IO);
+				LogUtil.exception(Level.DEBUG, e, "{}: failed to access the file \"{}\"", stepId, filePath);
+			}
+			finishOperation((O) dataOp, null, null);
+		} catch (final IOException e) {
+			dataOp.status(Operation.Status.FAIL_IO);
+			LogUtil.exception(Level.DEBUG, e, "{}: failed to access the file \"{}\"", stepId, filePath);
+			finishOperation((O) dataOp, null, null);
+		} catch (final Throwable cause) {
+			throwUncheckedIfInterrupted(cause);
+			dataOp.status(Operation.Status.FAIL_UNKNOWN);
+			LogUtil.exception(Level.WARN, cause, "{}: failed to access the file \"{}\"", stepId, filePath);
+			finishOperation((O) dataOp, null, null);
+		}
+	}
+
+	private FileChannel openBlocking(final Path filePath, final Set<OpenOption> openOpts)
+	throws IOException {
+		final var startTime = metrics == null ? 0 : System.nanoTime();
+		final var channel = FS_PROVIDER.newFileChannel(filePath, openOpts);
+		if (startTime != 0) {
+			metrics.record(IoMetrics.Phase.CHANNEL_OPEN, startTime);
+		}
+		return channel;
+	}
+
+	/**
+	 Closes the channel explicitly to measure the close time, the subsequent implicit close is a no-op
+	 */
+	private void closeBlocking(final FileChannel channel)
+	throws IOException {
+		final var startTime = metrics == null ? 0 : System.nanoTime();
+		channel.close();
+		if (startTime != 0) {
+			metrics.record(IoMetrics.Phase.CHANNEL_CLOSE, startTime);
+		}
+	}
+
+	private void writeBlocking(final DataOperation<? extends DataItem> dataOp, final FileChannel channel)
+	throws IOException {
+		final var item = dataOp.item();
+		final var contentSize = item.size();
+		var countBytesDone = dataOp.countBytesDone();
+		channel.position(countBytesDone);
+		item.position(countBytesDone);
+		while (countBytesDone < contentSize) {
+			final var startTime = ioStartTime();
+			countBytesDone += item.writeToFileChannel(channel, contentSize - countBytesDone);
+			ioDone(startTime);
+			dataOp.countBytesDone(countBytesDone);
+		}
+	}
+
+	/**
+	 Maps the whole file, which is extended to the item size by the mapping, and fills the mapping straight from the
+	 data input. The mapping is released before the file is synced and closed.
+	 */
+	private void writeMapped(final DataOperation<? extends DataItem> dataOp, final FileChannel channel)
+	throws IOException {
+		final var item = dataOp.item();
+		final var contentSize = item.size();
+		final var startTime = ioStartTime();
+		final var mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, contentSize);
+		try {
+			item.position(0);
+			while (mapping.hasRemaining()) {
+				if (item.read(mapping) <= 0) {
+					throw new IOException("Unexpected end of the item \"" + item.name() + "\" content");
+				}
+			}
+		} finally {
+			MappedBuffers.unmap(mapping);
+		}
+		ioDone(startTime);
+		dataOp.countBytesDone(contentSize);
+	}
+
+	/**
+	 Maps the whole file and verifies the content against the mapping without copying it into the buffer. If the
+	 verification is disabled the content is loaded into the memory only.
+	 @return true if the content is read (and verified if necessary) successfully, false if the operation failed
+	 */
+	private boolean readMapped(final DataOperation<? extends DataItem> dataOp, final FileChannel channel)
+	throws IOException {
+		final var item = dataOp.item();
+		final var contentSize = item.size();
+		final var fileSize = channel.size();
+		if (fileSize < contentSize && verifyFlag) {
+			Loggers.MSG.debug(
+				"{}: content size mismatch, expected: {}, actual: {}", item.name(), contentSize, fileSize
+			);
+			dataOp.status(Operation.Status.RESP_FAIL_CORRUPT);
+			return false;
+		}
+		final var countBytesToRead = Math.min(contentSize, fileSize);
+		final var startTime = ioStartTime();
+		final var mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, countBytesToRead);
+		try {
+			dataOp.startDataResponse();
+			if (verifyFlag) {
+				item.position(0);
+				try {
+					item.verify(mapping);
+				} catch (final DataCorruptionException e) {
+					Loggers.MSG.debug(
+						"{}: content mismatch @ offset {}, expected: {}, actual: {} ", item.name(), e.getOffset(),
+						String.format("\"0x%X\"", (int) (e.expected & 0xFF)),
+						String.format("\"0x%X\"", (int) (e.actual & 0xFF))
+					);
+					dataOp.status(Operation.Status.RESP_FAIL_CORRUPT);
+					return false;
+				}
+			} else {
+				mapping.load();
+			}
+		} finally {
+			MappedBuffers.unmap(mapping);
+		}
+		ioDone(startTime);
+		dataOp.countBytesDone(countBytesToRead);
+		item.position(countBytesToRead);
+		return true;
+	}
+
+	/**
+	 @return true if the content is read (and verified if necessary) successfully, false if the operation failed
+	 */
+	private boolean readBlocking(final DataOperation<? extends DataItem> dataOp, final FileChannel channel)
+	throws IOException {
+		final var item = dataOp.item();
+		final var contentSize = item.size();
+		var countBytesDone = dataOp.countBytesDone();
+		final var buff = leaseIoBuffer(ioChunkSize(OpType.READ, contentSize - countBytesDone));
+		try {
+			while (countBytesDone < contentSize) {
+				buff.clear();
+				if (contentSize - countBytesDone < buff.capacity()) {
+					buff.limit((int) (contentSize - countBytesDone));
+				}
+				final var startTime = ioStartTime();
+				final var n = channel.read(buff, countBytesDone);
+				ioDone(startTime);
+				if (n < 0) {
+					if (verifyFlag) {
+						Loggers.MSG.debug(
+							"{}: content size mismatch, expected: {}, actual: {}", item.name(), contentSize,
+							countBytesDone
+						);
+						dataOp.status(Operation.Status.RESP_FAIL_CORRUPT);
+						return false;
+					}
+					break;
+				}
+				if (countBytesDone == 0) {
+					dataOp.startDataResponse();
+				}
+				if (verifyFlag) {
+					buff.flip();
+					item.position(countBytesDone);
+					try {
+						item.verify(buff);
+					} catch (final DataCorruptionException e) {
+						Loggers.MSG.debug(
+							"{}: content mismatch @ offset {}, expected: {}, actual: {} ", item.name(),
+							countBytesDone + e.getOffset(), String.format("\"0x%X\"", (int) (e.expected & 0xFF)),
+							String.format("\"0x%X\"", (int) (e.actual & 0xFF))
+						);
+						dataOp.status(Operation.Status.RESP_FAIL_CORRUPT);
+						return false;
+					}
+				}
+				countBytesDone += n;
+				dataOp.countBytesDone(countBytesDone);
+				item.position(countBytesDone);
+			}
+		} finally {
+			releaseIoBuffer(buff);
+		}
+		return true;
+	}
+
+	/**
+	 Syncs the written file before reporting the operation successful if the durability policy requires this. The file
+	 is synced in the calling thread or, in the group commit mode, later in the sync thread together with the others.
+	 */
+	@Override
+	protected void completeOperation(final O op, final AsyncChannel srcChannel, final AsyncChannel dstChannel) {
+		if (SyncMode.NONE.equals(syncMode) || !(dstChannel instanceof SyncableChannel)) {
+			super.completeOperation(op, srcChannel, dstChannel);
+		} else if (groupCommit == null) {
+			try {
+				((SyncableChannel) dstChannel).sync(SyncMode.FULL.equals(syncMode));
+			} catch (final IOException e) {
+				syncFailed(op, srcChannel, dstChannel, e);
+				return;
+			}
+			super.completeOperation(op, srcChannel, dstChannel);
+		} else {
+			groupCommit.submit(op, srcChannel, (SyncableChannel) dstChannel);
+		}
+	}
+
+	private void synced(final GroupCommit.Entry<O> entry, final IOException e) {
+		if (e == null) {
+			super.completeOperation(entry.op, entry.srcChannel, entry.dstChannel);
+		} else {
+			syncFailed(entry.op, entry.srcChannel, entry.dstChannel, e);
+		}
+	}
+
+	private void syncFailed(
+		final O op, final AsyncChannel srcChannel, final AsyncChannel dstChannel, final IOException e
+	) {
+		LogUtil.exception(Level.DEBUG, e, "{}: failed to sync the file for the operation {}", stepId, op);
+		op.status(Operation.Status.FAIL_IO);
+		finishOperation(op, srcChannel, dstChannel);
+	}
+
+	/**
+	 Executes the path operation in the dedicated fork-join pool. The directory tree creation and the recursive
+	 directory deletion are parallelized in the same pool.
+	 */
+	@Override
+	protected void invokePathOperation(final PathOperation<? extends PathItem> pathOp) {
+		pathOpExecutor().execute(() -> runPathOperation(pathOp));
+	}
+
+	/**
+	 @return the path operations executor, created on the first invocation
+	 @throws RejectedExecutionException if the driver is closed
+	 */
+	private ForkJoinPool pathOpExecutor()
+	throws RejectedExecutionException {
+		var executor = pathOpExecutor;
+		if (executor == null) {
+			synchronized (lazyExecutorsLock) {
+				executor = pathOpExecutor;
+				if (executor == null) {
+					if (lazyExecutorsClosed) {
+						throw new RejectedExecutionException("The driver is closed");
+					}
+					executor = newForkJoinPool(stepId + "-path-", pathThreadCount);
+					pathOpExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void runPathOperation(final PathOperation<? extends PathItem> pathOp) {
+		Path dirPath = null;
+		try {
+			dirPath = targetPath(pathOp);
+			switch (pathOp.type()) {
+				case NOOP:
+					break;
+				case CREATE:
+					new DirIoHelper.DirTreeCreateAction(dirPath, pathTreeDepth, pathTreeFanOut).invoke();
+					break;
+				case READ:
+					final var entryCount = DirIoHelper.listDir(dirPath);
+					Loggers.MSG.trace("{}: listed {} entries in the directory \"{}\"", stepId, entryCount, dirPath);
+					break;
+				case DELETE:
+					new DirIoHelper.DirTreeDeleteAction(dirPath).invoke();
+					break;
+				default:
+					throw new AssertionError("Not implemented");
+			}
+		} catch (final UncheckedIOException e) {
+			pathOpFailed(pathOp, e.getCause(), dirPath);
+			return;
+		} catch (final IOException e) {
+			pathOpFailed(pathOp, e, dirPath);
+			return;
+		} catch (final Throwable cause) {
+			// finish the operation anyway, otherwise its concurrency permit is leaked
+			pathOp.status(Operation.Status.FAIL_UNKNOWN);
+			LogUtil.exception(
+				Level.WARN, cause, "{}: path operation \"{}\" failed @ \"{}\"", stepId, pathOp, dirPath
+			);
+			finishOperation((O) pathOp, null, null);
+			throwUncheckedIfInterrupted(cause);
+			return;
+		}
+		// outside of the try block so the completion handling failure doesn't finish the operation twice
+		completeOperation((O) pathOp, null, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void pathOpFailed(final PathOperation<? extends PathItem> pathOp, final IOException e, final Path dirPath) {
+		if (e instanceof NoSuchFileException) {
+			pathOp.status(Operation.Status.RESP_FAIL_NOT_FOUND);
+		} else if (e instanceof AccessDeniedException) {
+			pathOp.status(Operation.Status.RESP_FAIL_AUTH);
+		} else {
+			pathOp.status(Operation.Status.FAIL_IO);
+		}
+		LogUtil.exception(Level.DEBUG, e, "{}: path operation \"{}\" failed @ \"{}\"", stepId, pathOp, dirPath);
+		finishOperation((O) pathOp, null, null);
+	}
+
+	/**
+	 Enqueues the data item for the deletion by the dedicated worker threads. Deleting is a synchronous metadata
+	 operation so it's not performed by the coop fiber or the I/O completion threads.
+	 */
+	@Override @SuppressWarnings("unchecked")
+	protected void invokeDelete(final DataOperation<? extends DataItem> dataOp) {
+		if (deleteWorkersStarted.compareAndSet(false, true)) {
+			startDeleteWorkers();
+		}
+		deleteQueue.add((O) dataOp);
+	}
+
+	/**
+	 Creates the delete executor and starts the delete workers, does nothing if the driver is closed already
+	 */
+	private void startDeleteWorkers() {
+		synchronized (lazyExecutorsLock) {
+			if (!lazyExecutorsClosed) {
+				deleteExecutor = Executors.newFixedThreadPool(
+					deleteThreadCount, new LogContextThreadFactory(stepId + "-delete", true)
+				);
+				for (var i = 0; i < deleteThreadCount; i ++) {
+					deleteExecutor.submit(this::runDeleteWorker);
+				}
+			}
+		}
+	}
+
+	/**
+	 Takes the batch of the delete operations from the queue, deletes the corresponding files and passes the batch to
+	 the completion handling. The concurrency throttle permits are released once per batch.
+	 */
+	private void runDeleteWorker() {
+		final List<O> batch = new ArrayList<>(deleteBatchSize);
+		try {
+			while (true) {
+				batch.add(deleteQueue.take());
+				deleteQueue.drainTo(batch, deleteBatchSize - 1);
+				try {
+					for (final var op : batch) {
+						try {
+							delete((DataOperation<? extends DataItem>) op);
+						} catch (final RuntimeException e) {
+							op.status(Operation.Status.FAIL_UNKNOWN);
+							LogUtil.exception(Level.WARN, e, "{}: failed to delete the item {}", stepId, op.item());
+						}
+					}
+				} finally {
+					finishOperations(batch);
+					batch.clear();
+				}
+			}
+		} catch (final InterruptedException ignored) {
+			// the driver is closing
+		}
+	}
+
+	private void delete(final DataOperation<? extends DataItem> dataOp) {
+		final var itemPath = targetPath(dataOp);
+		invalidateCachedChannels(itemPath);
+		try {
+			FS_PROVIDER.delete(itemPath);
+			dataOp.startResponse();
+			dataOp.finishResponse();
+			dataOp.status(Operation.Status.SUCC);
+		} catch (final NoSuchFileException e) {
+			dataOp.status(Operation.Status.RESP_FAIL_NOT_FOUND);
+			LogUtil.exception(Level.DEBUG, e, "{}: no file to delete @ \"{}\"", stepId, itemPath);
+		} catch (final AccessDeniedException e) {
+			dataOp.status(Operation.Status.RESP_FAIL_AUTH);
+			LogUtil.exception(Level.DEBUG, e, "{}: access denied to delete the file @ \"{}\"", stepId, itemPath);
+		} catch (final IOException e) {
+			dataOp.status(Operation.Status.FAIL_IO);
+			LogUtil.exception(Level.DEBUG, e, "{}: failed to delete the file @ \"{}\"", stepId, itemPath);
+		} catch (final IllegalStateException e) {
+			dataOp.status(Operation.Status.FAIL_UNKNOWN);
+			LogUtil.exception(Level.WARN, e, "{}: finishing the load operation which is in an invalid state", stepId);
+		}
+	}
+
 	@Override
 	protected String requestNewPath(final String path) {
 		final File pathFile = FS.getPath(path).toFile();
@@ -127,18 +1054,131 @@ extends AioStorageDriverBase<I, O> {
 		final ItemFactory<I> itemFactory, final String path, final String prefix, final int idRadix,
 		final I lastPrevItem, final int count
 	) throws IOException {
-		return ListingHelper.list(itemFactory, path, prefix, idRadix, lastPrevItem, count);
+		if (listDepth != 0) {
+			return listTree(itemFactory, path, prefix, idRadix, lastPrevItem, count);
+		}
+		synchronized (listingLock) {
+			if (listingCursor != null && !listingCursor.continues(path, prefix, lastPrevItem)) {
+				closeListingCursor();
+			}
+			if (listingCursor == null) {
+				listingCursor = new ListingHelper.ListingCursor(path, prefix);
+			}
+			try {
+				final var items = ListingHelper.list(listingCursor, itemFactory, idRadix, lastPrevItem, count);
+				if (items.size() < count) { // the end of the directory
+					closeListingCursor();
+				}
+				return items;
+			} catch (final IOException e) {
+				closeListingCursor();
+				throw e;
+			}
+		}
 	}
 
-	@Override
-	public void adjustIoBuffers(final long avgTransferSize, final OpType opType) {
+	/**
+	 Lists the files in the directory and its subdirectories which are walked in parallel using the dedicated listing
+	 pool. The next page continues the same walk if it's requested right after the last item listed, the walk is
+	 closed (so its tasks release the pool threads) and restarted from the beginning otherwise.
+	 */
+	private List<I> listTree(
+		final ItemFactory<I> itemFactory, final String path, final String prefix, final int idRadix,
+		final I lastPrevItem, final int count
+	) throws IOException {
+		synchronized (listingLock) {
+			if (listingTreeWalker != null && !listingTreeWalker.continues(path, prefix, lastPrevItem)) {
+				listingTreeWalker.close();
+				listingTreeWalker = null;
+			}
+			if (listingTreeWalker == null) {
+				if (lastPrevItem != null) {
+					Loggers.MSG.debug(
+						"{}: the recursive listing can't be resumed after \"{}\", starting from the beginning", stepId,
+						lastPrevItem.name()
+					);
+				}
+				listingTreeWalker = new ListingTreeWalker<>(
+					path, prefix, itemFactory, idRadix, listDepth, listingExecutor
+				);
+			}
+			try {
+				final var items = listingTreeWalker.list(count);
+				if (items.size() < count) { // the walk is done
+					listingTreeWalker.close();
+					listingTreeWalker = null;
+				}
+				return items;
+			} catch (final IOException e) {
+				listingTreeWalker.close();
+				listingTreeWalker = null;
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 Should be invoked under the listing lock
+	 */
+	private void closeListingCursor() {
+		try {
+			listingCursor.close();
+		} catch (final IOException e) {
+			LogUtil.exception(Level.DEBUG, e, "{}: failed to close the listing cursor", stepId);
+		} finally {
+			listingCursor = null;
+		}
 	}
 
 	@Override
 	protected void doClose()
 	throws IOException {
+		if (groupCommit != null) {
+			Loggers.MSG.info("{}: files to sync on close: {}", stepId, groupCommit.pendingCount());
+			groupCommit.close();
+		}
 		super.doClose();
+		if (channelCache != null) {
+			Loggers.MSG.info("{}: channel cache stats: {}", stepId, channelCache);
+			channelCache.close();
+		}
+		Loggers.MSG.info("{}: I/O executor stats: {}", stepId, ioExecutor);
+		ioExecutor.shutdownNow();
+		synchronized (lazyExecutorsLock) {
+			lazyExecutorsClosed = true;
+			if (deleteExecutor != null) {
+				deleteExecutor.shutdownNow();
+			}
+			if (pathOpExecutor != null) {
+				pathOpExecutor.shutdownNow();
+			}
+		}
+		if (listingExecutor != null) {
+			listingExecutor.shutdownNow();
+		}
+		if (zeroCopyExecutor != null) {
+			zeroCopyExecutor.shutdownNow();
+			zeroCopyFallbackOps.clear();
+		}
+		if (mmapExecutor != null) {
+			mmapExecutor.shutdownNow();
+		}
+		if (smallExecutor != null) {
+			smallExecutor.shutdownNow();
+		}
+		smallQueue.clear();
+		deleteQueue.clear();
 		dstParentDirs.clear();
+		ioEngine.close();
+		synchronized (listingLock) {
+			if (listingCursor != null) {
+				closeListingCursor();
+			}
+			if (listingTreeWalker != null) {
+				listingTreeWalker.close();
+				listingTreeWalker = null;
+			}
+		}
 	}
 
 	@Override
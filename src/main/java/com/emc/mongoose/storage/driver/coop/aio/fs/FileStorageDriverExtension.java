@@ -1,5 +1,7 @@
 package com.emc.mongoose.storage.driver.coop.aio.fs;
 
+import static com.emc.mongoose.base.Constants.APP_NAME;
+
 import com.emc.mongoose.base.config.IllegalConfigurationException;
 import com.emc.mongoose.base.data.DataInput;
 import com.emc.mongoose.base.env.ExtensionBase;
@@ -8,7 +10,9 @@ import com.emc.mongoose.base.item.op.Operation;
 import com.emc.mongoose.base.storage.driver.StorageDriverFactory;
 import com.github.akurilov.confuse.Config;
 import com.github.akurilov.confuse.SchemaProvider;
+import com.github.akurilov.confuse.io.yaml.YamlSchemaProviderBase;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -18,8 +22,21 @@ public class FileStorageDriverExtension<I extends Item, O extends Operation<I>,
 	implements StorageDriverFactory<I, O, T> {
 
 	private static final String NAME = "fs";
+	private static final SchemaProvider SCHEMA_PROVIDER = new YamlSchemaProviderBase() {
+
+		@Override
+		protected final InputStream schemaInputStream() {
+			return getClass().getResourceAsStream("/config-schema-storage-driver-aio.yaml");
+		}
+
+		@Override
+		public final String id() {
+			return APP_NAME;
+		}
+	};
+	private static final String DEFAULTS_FILE_NAME = "defaults-storage-driver-aio.yaml";
 	private static final List<String> RES_INSTALL_FILES = Collections.unmodifiableList(
-		Arrays.asList());
+		Arrays.asList("config/" + DEFAULTS_FILE_NAME));
 
 	@Override
 	public String id() {
@@ -36,12 +53,12 @@ public class FileStorageDriverExtension<I extends Item, O extends Operation<I>,
 
 	@Override
 	public final SchemaProvider schemaProvider() {
-		return null;
+		return SCHEMA_PROVIDER;
 	}
 
 	@Override
 	protected final String defaultsFileName() {
-		return null;
+		return DEFAULTS_FILE_NAME;
 	}
 
 	@Override
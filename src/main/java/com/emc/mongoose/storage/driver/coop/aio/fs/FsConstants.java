@@ -1,5 +1,9 @@
 package com.emc.mongoose.storage.driver.coop.aio.fs;
 
+import com.emc.mongoose.storage.driver.coop.aio.AioStorageDriverBase;
+
+import com.sun.nio.file.ExtendedOpenOption;
+
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.OpenOption;
@@ -12,6 +16,8 @@ public interface FsConstants {
 
 	FileSystem FS = FileSystems.getDefault();
 	FileSystemProvider FS_PROVIDER = FS.provider();
+	long ZERO_COPY_CHUNK_SIZE = 0x1_00_00_00; // 16MB
+	int DIRECT_IO_ALIGNMENT_MAX = AioStorageDriverBase.DIRECT_IO_BUFF_ALIGNMENT; // 64KB
 
 	Set<OpenOption> CREATE_OPEN_OPT = new HashSet<OpenOption>() {
 		{
@@ -30,4 +36,24 @@ public interface FsConstants {
 			add(StandardOpenOption.WRITE);
 		}
 	};
+	Set<OpenOption> MMAP_CREATE_OPEN_OPT = new HashSet<OpenOption>(CREATE_OPEN_OPT) {
+		{
+			add(StandardOpenOption.READ); // required for the read-write mapping
+		}
+	};
+	Set<OpenOption> DIRECT_CREATE_OPEN_OPT = new HashSet<OpenOption>(CREATE_OPEN_OPT) {
+		{
+			add(ExtendedOpenOption.DIRECT);
+		}
+	};
+	Set<OpenOption> DIRECT_READ_OPEN_OPT = new HashSet<OpenOption>(READ_OPEN_OPT) {
+		{
+			add(ExtendedOpenOption.DIRECT);
+		}
+	};
+	Set<OpenOption> DIRECT_WRITE_OPEN_OPT = new HashSet<OpenOption>(WRITE_OPEN_OPT) {
+		{
+			add(ExtendedOpenOption.DIRECT);
+		}
+	};
 }
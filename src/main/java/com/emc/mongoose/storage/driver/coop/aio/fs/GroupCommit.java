@@ -0,0 +1,209 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
+import com.emc.mongoose.base.logging.LogUtil;
+import com.emc.mongoose.base.logging.Loggers;
+
+import org.apache.logging.log4j.Level;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ Syncs the written files in the batches in the dedicated thread. The thread waits for the first pending file, then
+ waits the configured period more to gather the batch, syncs the distinct channels of the batch in parallel using the
+ sync workers, each channel once (so the operations sharing the cached channel are synced together), and then reports
+ the batch entries done. The files written while the batch is being synced are gathered into the next batch. The files
+ still pending on close are synced by the closing thread so no operation is left unfinished.
+ @param <O> the operation type
+ */
+final class GroupCommit<O>
+implements AutoCloseable {
+
+	private static final int BATCH_SIZE_MAX = 0x4_00;
+	private static final int CLOSE_TIMEOUT_SECONDS = 10;
+
+	/**
+	 The callback invoked for each synced entry
+	 */
+	@FunctionalInterface
+	interface SyncHandler<O> {
+		/**
+		 @param e the exception if the sync failed, null otherwise
+		 */
+		void synced(final Entry<O> entry, final IOException e);
+	}
+
+	static final class Entry<O> {
+
+		final O op;
+		final AsyncChannel srcChannel;
+		final SyncableChannel dstChannel;
+
+		Entry(final O op, final AsyncChannel srcChannel, final SyncableChannel dstChannel) {
+			this.op = op;
+			this.srcChannel = srcChannel;
+			this.dstChannel = dstChannel;
+		}
+	}
+
+	private final String name;
+	private final long periodMillis;
+	private final SyncHandler<O> handler;
+	private final BlockingQueue<Entry<O>> pending = new LinkedBlockingQueue<>();
+	private final ExecutorService executor;
+	private final ExecutorService syncExecutor;
+	private volatile boolean closed = false;
+
+	/**
+	 @param name the name prefix for the sync threads
+	 @param periodMillis the time to gather the batch after the first pending file arrival
+	 @param syncThreads the count of the threads syncing the distinct files of the batch in parallel
+	 @param handler the callback invoked for each synced entry in the sync thread
+	 */
+	GroupCommit(final String name, final long periodMillis, final int syncThreads, final SyncHandler<O> handler) {
+		this.name = name;
+		this.periodMillis = periodMillis;
+		this.handler = handler;
+		syncExecutor = Executors.newFixedThreadPool(
+			syncThreads, new LogContextThreadFactory(name + "-sync-worker", true)
+		);
+		executor = Executors.newSingleThreadExecutor(new LogContextThreadFactory(name + "-sync", true));
+		executor.execute(this::run);
+	}
+
+	void submit(final O op, final AsyncChannel srcChannel, final SyncableChannel dstChannel) {
+		pending.add(new Entry<>(op, srcChannel, dstChannel));
+		if (closed) { // the sync thread may be stopped already
+			syncPending();
+		}
+	}
+
+	/**
+	 Syncs the pending files in the calling thread
+	 */
+	private void syncPending() {
+		final List<Entry<O>> batch = new ArrayList<>(BATCH_SIZE_MAX);
+		while (0 < pending.drainTo(batch, BATCH_SIZE_MAX)) {
+			syncBatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void run() {
+		final List<Entry<O>> batch = new ArrayList<>(BATCH_SIZE_MAX);
+		try {
+			while (!closed) {
+				batch.add(pending.take());
+				if (periodMillis > 0) {
+					try {
+						TimeUnit.MILLISECONDS.sleep(periodMillis);
+					} catch (final InterruptedException e) {
+						// closing, sync the batch taken already before the exit
+						pending.drainTo(batch, BATCH_SIZE_MAX - 1);
+						syncBatch(batch);
+						return;
+					}
+				}
+				pending.drainTo(batch, BATCH_SIZE_MAX - 1);
+				syncBatch(batch);
+				batch.clear();
+			}
+		} catch (final InterruptedException ignored) {
+			// closing, nothing is taken
+		}
+	}
+
+	/**
+	 Syncs the distinct channels of the batch in parallel and reports each entry done
+	 */
+	private void syncBatch(final List<Entry<O>> batch) {
+		final var channelIndices = new IdentityHashMap<SyncableChannel, Integer>();
+		final List<SyncableChannel> channels = new ArrayList<>();
+		for (final var entry : batch) {
+			if (null == channelIndices.putIfAbsent(entry.dstChannel, channels.size())) {
+				channels.add(entry.dstChannel);
+			}
+		}
+		final var syncResults = new IOException[channels.size()];
+		final var syncLatch = new CountDownLatch(channels.size() - 1);
+		for (var i = 1; i < channels.size(); i ++) {
+			final var j = i;
+			try {
+				syncExecutor.execute(
+					() -> {
+						syncResults[j] = sync(channels.get(j));
+						syncLatch.countDown();
+					}
+				);
+			} catch (final RejectedExecutionException e) { // closing
+				syncResults[j] = sync(channels.get(j));
+				syncLatch.countDown();
+			}
+		}
+		syncResults[0] = sync(channels.get(0)); // the calling thread syncs the first one itself
+		var interrupted = false;
+		while (true) {
+			try {
+				syncLatch.await();
+				break;
+			} catch (final InterruptedException e) {
+				interrupted = true; // the entries should be reported anyway
+			}
+		}
+		for (final var entry : batch) {
+			try {
+				handler.synced(entry, syncResults[channelIndices.get(entry.dstChannel)]);
+			} catch (final RuntimeException e) {
+				LogUtil.exception(Level.ERROR, e, "{}: failed to handle the synced operation {}", name, entry.op);
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static IOException sync(final SyncableChannel channel) {
+		try {
+			channel.sync(false);
+			return null;
+		} catch (final IOException e) {
+			return e;
+		}
+	}
+
+	/**
+	 @return the count of the files waiting for the sync
+	 */
+	int pendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 Stops the sync thread and syncs the files still pending in the calling thread
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		executor.shutdownNow();
+		try {
+			if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				Loggers.ERR.warn("{}: the sync thread is not stopped in {}s", name, CLOSE_TIMEOUT_SECONDS);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		syncPending();
+		syncExecutor.shutdownNow();
+	}
+}
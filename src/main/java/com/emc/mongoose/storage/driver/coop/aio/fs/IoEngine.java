@@ -0,0 +1,30 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import java.io.IOException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ The file I/O engine: opens the files and performs the asynchronous I/O on them
+ */
+interface IoEngine
+extends AutoCloseable {
+
+	/**
+	 @return the channel of the opened file
+	 @throws IOException if failed to open the file
+	 */
+	SyncableChannel open(final Path path, final Set<OpenOption> openOpts)
+	throws IOException;
+
+	/**
+	 Submits the I/O requested since the previous flush if the engine batches the submissions. The driver invokes this
+	 after each batch of the load operations is submitted.
+	 */
+	default void flush() {
+	}
+
+	@Override
+	void close();
+}
@@ -0,0 +1,121 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ The JNI binding of the io_uring, see src/main/c/mongoose_aio_uring.c. The functions return the negative error number
+ on failure. The submission functions are not thread safe, the completions may be reaped concurrently with the
+ submissions by another (single) thread.
+ The library is looked up in the java.library.path first, then the one bundled into the jar for the current
+ architecture (built by the nativeLib task) is extracted and loaded.
+ */
+final class IoUring {
+
+	static final String LIBRARY_NAME = "mongoose-aio-uring";
+	static final String BUNDLED_LIBRARY_PATH = "/native/linux-" + System.getProperty("os.arch") + "/"
+		+ System.mapLibraryName(LIBRARY_NAME);
+
+	// the open flags, converted to the native ones by the binding
+	static final int OPEN_READ = 1;
+	static final int OPEN_WRITE = 2;
+	static final int OPEN_CREATE = 4;
+	static final int OPEN_TRUNCATE = 8;
+	static final int OPEN_DIRECT = 16;
+
+	private static final Throwable LOAD_FAILURE;
+
+	static {
+		Throwable loadFailure = null;
+		try {
+			System.loadLibrary(LIBRARY_NAME);
+		} catch (final UnsatisfiedLinkError | SecurityException e) {
+			try {
+				loadBundled();
+			} catch (final IOException | UnsatisfiedLinkError | SecurityException ee) {
+				e.addSuppressed(ee);
+				loadFailure = e;
+			}
+		}
+		LOAD_FAILURE = loadFailure;
+	}
+
+	private IoUring() {
+	}
+
+	/**
+	 Extracts the bundled library into the temporary file and loads it. The file is removed right after the load, the
+	 loaded library remains mapped.
+	 */
+	private static void loadBundled()
+	throws IOException {
+		final var libFile = Files.createTempFile(LIBRARY_NAME, ".so");
+		try {
+			try (final var in = IoUring.class.getResourceAsStream(BUNDLED_LIBRARY_PATH)) {
+				if (in == null) {
+					throw new FileNotFoundException("No bundled native library " + BUNDLED_LIBRARY_PATH);
+				}
+				Files.copy(in, libFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			System.load(libFile.toAbsolutePath().toString());
+		} finally {
+			Files.deleteIfExists(libFile);
+		}
+	}
+
+	/**
+	 @return null if the native library is loaded, the load failure otherwise
+	 */
+	static Throwable loadFailure() {
+		return LOAD_FAILURE;
+	}
+
+	/**
+	 @return the ring pointer
+	 */
+	static native long init(final int entries);
+
+	static native void destroy(final long ring);
+
+	/**
+	 Opens the file synchronously in the calling thread
+	 @return the file descriptor
+	 */
+	static native int open(final String path, final int openFlags);
+
+	static native int sync(final int fd, final boolean metaData);
+
+	/**
+	 Closes the file synchronously in the calling thread, for the files closed after the ring is shut down
+	 */
+	static native int close(final int fd);
+
+	static native int prepRead(
+		final long ring, final int fd, final ByteBuffer buff, final int buffPos, final int len, final long offset,
+		final long userData
+	);
+
+	static native int prepWrite(
+		final long ring, final int fd, final ByteBuffer buff, final int buffPos, final int len, final long offset,
+		final long userData
+	);
+
+	static native int prepClose(final long ring, final int fd, final long userData);
+
+	/**
+	 Submits all the prepared requests using the single system call
+	 @return the count of the submitted requests
+	 */
+	static native int submit(final long ring);
+
+	/**
+	 Waits for the completions up to the given timeout and reaps them
+	 @return the count of the reaped completions, their user data and results are put into the given arrays
+	 */
+	static native int reap(final long ring, final long[] userData, final int[] results, final long timeoutNanos);
+
+	static native String strerror(final int errNum);
+}
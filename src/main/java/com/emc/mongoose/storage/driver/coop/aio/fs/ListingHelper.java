@@ -3,15 +3,19 @@ package com.emc.mongoose.storage.driver.coop.aio.fs;
 import com.emc.mongoose.base.item.Item;
 import com.emc.mongoose.base.item.ItemFactory;
 
-import java.io.File;
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 public interface ListingHelper {
 
@@ -33,56 +37,91 @@ public interface ListingHelper {
 		}
 	}
 
+	/**
+	 The open directory stream position kept between the listing calls, so the next page continues the stream instead
+	 of reopening it and skipping all the entries listed before.
+	 */
+	final class ListingCursor
+	implements Closeable {
+
+		private final String path;
+		private final String prefix;
+		private final DirectoryStream<Path> dirStream;
+		private final Iterator<Path> dirStreamIter;
+		private String lastItemName = null;
+
+		public ListingCursor(final String path, final String prefix)
+		throws IOException {
+			this.path = path;
+			this.prefix = prefix;
+			final DirectoryStream.Filter<Path> filter = (prefix == null || prefix.isEmpty()) ?
+				ACCEPT_ALL_PATHS_FILTER : new PrefixDirectoryStreamFilter(prefix);
+			dirStream = FsConstants.FS_PROVIDER.newDirectoryStream(Paths.get(path), filter);
+			dirStreamIter = dirStream.iterator();
+		}
+
+		/**
+		 @return true if the next page of the same listing starting after the given item may be taken from this cursor
+		 */
+		public boolean continues(final String path, final String prefix, final Item lastPrevItem) {
+			return lastPrevItem != null && lastPrevItem.name().equals(lastItemName) && Objects.equals(this.path, path)
+				&& Objects.equals(this.prefix, prefix);
+		}
+
+		@Override
+		public void close()
+		throws IOException {
+			dirStream.close();
+		}
+	}
+
 	static <I extends Item> List<I> list(
 		final ItemFactory<I> itemFactory, final String path, final String prefix, final int idRadix,
 		final I lastPrevItem, final int count
 	) throws IOException {
+		try (final var cursor = new ListingCursor(path, prefix)) {
+			return list(cursor, itemFactory, idRadix, lastPrevItem, count);
+		}
+	}
+
+	/**
+	 Lists the next page of the items using the cursor. If the cursor hasn't listed the last previous item (new cursor)
+	 the entries are skipped until it's found. The file sizes are taken from the single attributes read per listed file.
+	 */
+	static <I extends Item> List<I> list(
+		final ListingCursor cursor, final ItemFactory<I> itemFactory, final int idRadix, final I lastPrevItem,
+		final int count
+	) throws IOException {
 
-		final DirectoryStream.Filter<Path> filter = (prefix == null || prefix.isEmpty()) ? ACCEPT_ALL_PATHS_FILTER : new PrefixDirectoryStreamFilter(prefix);
 		final List<I> buff = new ArrayList<>(count);
+		final var prefix = cursor.prefix;
+		final int prefixLength = (prefix == null || prefix.isEmpty()) ? 0 : prefix.length();
+		final var dirStreamIter = cursor.dirStreamIter;
 
-		try (
-						final DirectoryStream<Path> dirStream = FsConstants.FS_PROVIDER.newDirectoryStream(Paths.get(path), filter)) {
-			final int prefixLength = (prefix == null || prefix.isEmpty()) ? 0 : prefix.length();
+		try {
+			if (lastPrevItem != null && !lastPrevItem.name().equals(cursor.lastItemName)) {
+				final var lastPrevItemName = lastPrevItem.name();
+				while (dirStreamIter.hasNext()) {
+					if (dirStreamIter.next().toAbsolutePath().toString().equals(lastPrevItemName)) {
+						break;
+					}
+				}
+			}
 
-			File nextFile;
+			Path nextPath;
 			String nextFileName;
-			I nextItem;
+			long nextFileSize;
 
-			final String lastPrevItemName;
-			boolean lastPrevItemNameFound;
-			if (lastPrevItem == null) {
-				lastPrevItemName = null;
-				lastPrevItemNameFound = true;
-			} else {
-				lastPrevItemName = lastPrevItem.name();
-				lastPrevItemNameFound = false;
-			}
-
-			for (final Path nextPath : dirStream) {
-				nextFile = new File(nextPath.toString());
-				nextFileName = nextFile.getAbsolutePath();
-				if (lastPrevItemNameFound) {
-					try {
-						final long offset;
-						if (prefixLength > 0) {
-							// only items with the prefix are passed so it's safe
-							offset = Long.parseLong(nextFileName.substring(prefixLength), idRadix);
-						} else {
-							offset = Long.parseLong(nextFileName, idRadix);
-						}
-						nextItem = itemFactory.getItem(nextFile.getAbsolutePath(), offset, nextFile.length());
-					} catch (final NumberFormatException e) {
-						// try to not use the offset (read verification should be disabled)
-						nextItem = itemFactory.getItem(nextFile.getAbsolutePath(), 0, nextFile.length());
-					}
-					buff.add(nextItem);
-					if (count == buff.size()) {
-						break;
-					}
-				} else {
-					lastPrevItemNameFound = nextFileName.equals(lastPrevItemName);
+			while (buff.size() < count && dirStreamIter.hasNext()) {
+				nextPath = dirStreamIter.next().toAbsolutePath();
+				nextFileName = nextPath.toString();
+				try {
+					nextFileSize = FsConstants.FS_PROVIDER.readAttributes(nextPath, BasicFileAttributes.class).size();
+				} catch (final NoSuchFileException e) {
+					continue; // deleted after listed
 				}
+				buff.add(newItem(itemFactory, nextFileName, prefixLength, idRadix, nextFileSize));
+				cursor.lastItemName = nextFileName;
 			}
 		} catch (final DirectoryIteratorException e) {
 			throw e.getCause(); // according the JDK documentation
@@ -90,4 +129,26 @@ public interface ListingHelper {
 
 		return buff;
 	}
+
+	/**
+	 Creates the item for the listed file. The item offset is parsed from the file name if possible.
+	 */
+	static <I extends Item> I newItem(
+		final ItemFactory<I> itemFactory, final String fileName, final int prefixLength, final int idRadix,
+		final long size
+	) {
+		try {
+			final long offset;
+			if (prefixLength > 0) {
+				// only items with the prefix are passed so it's safe
+				offset = Long.parseLong(fileName.substring(prefixLength), idRadix);
+			} else {
+				offset = Long.parseLong(fileName, idRadix);
+			}
+			return itemFactory.getItem(fileName, offset, size);
+		} catch (final NumberFormatException e) {
+			// try to not use the offset (read verification should be disabled)
+			return itemFactory.getItem(fileName, 0, size);
+		}
+	}
 }
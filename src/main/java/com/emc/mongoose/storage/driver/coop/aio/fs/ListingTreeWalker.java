@@ -0,0 +1,210 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.item.Item;
+import com.emc.mongoose.base.item.ItemFactory;
+import com.emc.mongoose.base.logging.LogUtil;
+
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.FS_PROVIDER;
+
+import org.apache.logging.log4j.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The recursive directory listing. The subdirectories are walked in parallel by the fork-join tasks which put the items
+ into the bounded queue as they are discovered, so the walk is paused while the listing consumer doesn't take the
+ items. The items order is not defined.
+ */
+final class ListingTreeWalker<I extends Item>
+implements Closeable {
+
+	private static final int QUEUE_CAPACITY = 0x1_00_00;
+	private static final Object END_MARKER = new Object();
+
+	private final String path;
+	private final String prefix;
+	private final ItemFactory<I> itemFactory;
+	private final int idRadix;
+	private final int prefixLength;
+	private final ListingHelper.PrefixDirectoryStreamFilter prefixFilter;
+	private final int maxDepth;
+	private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private volatile boolean closed = false;
+	private volatile IOException rootDirFailure = null;
+	private boolean done = false; // consumer side only
+	private String lastItemName = null; // consumer side only
+
+	/**
+	 Starts the walk
+	 @param maxDepth the max depth of the subdirectories to list, negative means unlimited
+	 @param pool the fork-join pool to walk the directories tree in
+	 */
+	ListingTreeWalker(
+		final String path, final String prefix, final ItemFactory<I> itemFactory, final int idRadix, final int maxDepth,
+		final ForkJoinPool pool
+	) {
+		this.path = path;
+		this.prefix = prefix;
+		this.itemFactory = itemFactory;
+		this.idRadix = idRadix;
+		if (prefix == null || prefix.isEmpty()) {
+			prefixLength = 0;
+			prefixFilter = null;
+		} else {
+			prefixLength = prefix.length();
+			prefixFilter = new ListingHelper.PrefixDirectoryStreamFilter(prefix);
+		}
+		this.maxDepth = maxDepth;
+		pool.execute(new DirWalkTask(null, this, Paths.get(path), 0));
+	}
+
+	/**
+	 @return true if the next page of the same listing starting after the given item may be taken from this walker
+	 */
+	boolean continues(final String path, final String prefix, final Item lastPrevItem) {
+		return lastPrevItem != null && lastPrevItem.name().equals(lastItemName) && Objects.equals(this.path, path)
+			&& Objects.equals(this.prefix, prefix);
+	}
+
+	/**
+	 Blocks until the given count of the items is discovered or the walk is done
+	 @return the next page of the items, the empty list if the walk is done
+	 @throws IOException if failed to list the root directory
+	 */
+	@SuppressWarnings("unchecked")
+	List<I> list(final int count)
+	throws IOException {
+		final List<I> items = new ArrayList<>(count);
+		try {
+			while (!done && items.size() < count) {
+				final var next = queue.take();
+				if (next == END_MARKER) {
+					done = true;
+				} else {
+					items.add((I) next);
+				}
+			}
+		} catch (final InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while waiting for the listed items");
+		}
+		if (items.isEmpty()) {
+			final var e = rootDirFailure;
+			if (e != null) {
+				throw e;
+			}
+		} else {
+			lastItemName = items.get(items.size() - 1).name();
+		}
+		return items;
+	}
+
+	private void put(final Object next)
+	throws InterruptedException {
+		while (!closed && !queue.offer(next, 100, TimeUnit.MILLISECONDS));
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		queue.clear();
+	}
+
+	private static final class DirWalkTask
+	extends CountedCompleter<Void> {
+
+		private final ListingTreeWalker<?> walker;
+		private final Path dirPath;
+		private final int depth;
+
+		DirWalkTask(
+			final CountedCompleter<?> parent, final ListingTreeWalker<?> walker, final Path dirPath, final int depth
+		) {
+			super(parent);
+			this.walker = walker;
+			this.dirPath = dirPath;
+			this.depth = depth;
+		}
+
+		@Override
+		public final void compute() {
+			try (
+				final DirectoryStream<Path> dirStream = FS_PROVIDER.newDirectoryStream(
+					dirPath, ListingHelper.ACCEPT_ALL_PATHS_FILTER
+				)
+			) {
+				for (final var entry : dirStream) {
+					if (walker.closed) {
+						break;
+					}
+					final BasicFileAttributes attrs;
+					try {
+						attrs = FS_PROVIDER.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					} catch (final NoSuchFileException e) {
+						continue; // deleted after listed
+					}
+					if (attrs.isDirectory()) {
+						if (walker.maxDepth < 0 || depth < walker.maxDepth) {
+							addToPendingCount(1);
+							new DirWalkTask(this, walker, entry, depth + 1).fork();
+						}
+					} else if (
+						attrs.isRegularFile() && (walker.prefixFilter == null || walker.prefixFilter.accept(entry))
+					) {
+						walker.put(
+							ListingHelper.newItem(
+								walker.itemFactory, entry.toAbsolutePath().toString(), walker.prefixLength,
+								walker.idRadix, attrs.size()
+							)
+						);
+					}
+				}
+			} catch (final DirectoryIteratorException e) {
+				failed(e.getCause());
+			} catch (final IOException e) {
+				failed(e);
+			} catch (final InterruptedException e) {
+				walker.close();
+			}
+			tryComplete();
+		}
+
+		private void failed(final IOException e) {
+			if (depth == 0) {
+				walker.rootDirFailure = e;
+			} else {
+				LogUtil.exception(Level.WARN, e, "Failed to list the directory \"{}\"", dirPath);
+			}
+		}
+
+		/**
+		 Invoked for the root task when all the subdirectories are walked
+		 */
+		@Override
+		public final void onCompletion(final CountedCompleter<?> caller) {
+			if (getCompleter() == null) {
+				try {
+					walker.put(END_MARKER);
+				} catch (final InterruptedException ignored) {
+					walker.close();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.logging.LogUtil;
+
+import org.apache.logging.log4j.Level;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ Releases the file mappings deterministically using sun.misc.Unsafe#invokeCleaner instead of waiting for the garbage
+ collection, otherwise the count of the mappings may exceed the process limit (vm.max_map_count) during the long runs
+ */
+final class MappedBuffers {
+
+	private static final MethodHandle INVOKE_CLEANER;
+
+	static {
+		MethodHandle invokeCleaner = null;
+		try {
+			final var unsafeClass = Class.forName("sun.misc.Unsafe");
+			final var theUnsafeField = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafeField.setAccessible(true);
+			invokeCleaner = MethodHandles
+				.lookup()
+				.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+				.bindTo(theUnsafeField.get(null));
+		} catch (final Exception e) {
+			LogUtil.exception(
+				Level.WARN, e, "The file mappings will be released by the garbage collector only, the count of the "
+					+ "mappings may exceed the limit"
+			);
+		}
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private MappedBuffers() {
+	}
+
+	/**
+	 Unmaps the buffer, the buffer should not be accessed after this
+	 */
+	static void unmap(final MappedByteBuffer buff) {
+		if (INVOKE_CLEANER != null) {
+			try {
+				INVOKE_CLEANER.invokeExact((ByteBuffer) buff);
+			} catch (final Throwable e) {
+				LogUtil.exception(Level.DEBUG, e, "Failed to unmap the buffer");
+			}
+		}
+	}
+}
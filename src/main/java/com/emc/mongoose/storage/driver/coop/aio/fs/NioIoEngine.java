@@ -0,0 +1,91 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.DIRECT_IO_ALIGNMENT_MAX;
+import static com.emc.mongoose.storage.driver.coop.aio.fs.FsConstants.FS_PROVIDER;
+import com.emc.mongoose.base.logging.Loggers;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ The default I/O engine using {@link AsynchronousFileChannel}: the blocking file I/O is performed by the given executor
+ threads.
+ */
+final class NioIoEngine
+implements IoEngine {
+
+	private final ExecutorService ioExecutor;
+	private final DirectIoChannel.Pools directIoPools;
+	private final Map<Path, Integer> blockSizes = new ConcurrentHashMap<>();
+
+	/**
+	 @param ioExecutor the executor for the file I/O and its completion handlers
+	 @param directIoPools the bounce buffers and the handlers for the unaligned direct I/O, null if the direct I/O is
+	 disabled
+	 */
+	NioIoEngine(final ExecutorService ioExecutor, final DirectIoChannel.Pools directIoPools) {
+		this.ioExecutor = ioExecutor;
+		this.directIoPools = directIoPools;
+	}
+
+	/**
+	 Opens the file channel for the asynchronous I/O in the driver's executor. The direct I/O channel is aligning the
+	 I/O to the file system block size.
+	 */
+	@Override
+	public SyncableChannel open(final Path path, final Set<OpenOption> openOpts)
+	throws IOException {
+		final var channel = FS_PROVIDER.newAsynchronousFileChannel(path, openOpts, ioExecutor);
+		if (directIoPools == null) {
+			return new FileIoChannel(channel);
+		}
+		try {
+			return new DirectIoChannel(channel, blockSize(path), directIoPools);
+		} catch (final IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 @return the I/O alignment for the file system containing the file, cached for the parent directory. The reported
+	 block size is the preferred I/O size which may be much bigger than the logical block size actually required for
+	 the direct I/O (1MB for NFS, for example), so it's clamped to the max supported alignment. The max alignment is
+	 used also if the block size is not a power of 2 as far as it's a multiple of any power of 2 logical block size not
+	 bigger than it.
+	 */
+	private int blockSize(final Path filePath)
+	throws IOException {
+		final var dirPath = filePath.toAbsolutePath().getParent();
+		var blockSize = blockSizes.get(dirPath);
+		if (blockSize == null) {
+			final var fsBlockSize = Files.getFileStore(dirPath).getBlockSize();
+			if (fsBlockSize > DIRECT_IO_ALIGNMENT_MAX || Long.bitCount(fsBlockSize) != 1) {
+				Loggers.MSG.debug(
+					"The file system block size {} is not supported for the direct I/O alignment, using {} ({})",
+					fsBlockSize, DIRECT_IO_ALIGNMENT_MAX, dirPath
+				);
+				blockSize = DIRECT_IO_ALIGNMENT_MAX;
+			} else {
+				blockSize = (int) fsBlockSize;
+			}
+			blockSizes.put(dirPath, blockSize);
+		}
+		return blockSize;
+	}
+
+	@Override
+	public void close() {
+		blockSizes.clear();
+		if (directIoPools != null) {
+			directIoPools.clear();
+		}
+	}
+}
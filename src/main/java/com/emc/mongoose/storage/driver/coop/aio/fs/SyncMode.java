@@ -0,0 +1,16 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+/**
+ The durability policy for the files written by the create and update operations. The operation is reported
+ successful only after the sync.
+ */
+enum SyncMode {
+	/** Don't sync, the written content may be in the page cache only */
+	NONE,
+	/** Sync the content (fdatasync) before closing the file */
+	DATA,
+	/** Sync the content and the metadata (fsync) before closing the file */
+	FULL,
+	/** Sync the content (fdatasync) in the batches in the dedicated thread (group commit) */
+	GROUP,
+}
@@ -0,0 +1,18 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+
+import java.io.IOException;
+
+/**
+ The file channel which content may be forced to the storage device
+ */
+interface SyncableChannel
+extends AsyncChannel {
+
+	/**
+	 @param metaData true to force the file metadata too (fsync), false to force the content only (fdatasync)
+	 */
+	void sync(final boolean metaData)
+	throws IOException;
+}
@@ -0,0 +1,414 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
+import com.emc.mongoose.base.logging.Loggers;
+import com.emc.mongoose.storage.driver.coop.aio.DirectBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.sun.nio.file.ExtendedOpenOption.DIRECT;
+
+/**
+ The I/O engine using the Linux io_uring via the JNI binding (see {@link IoUring}). The reads and the writes are only
+ prepared in the submission queue by the calling threads and submitted by the single system call on {@link #flush()},
+ which is invoked by the driver after each batch of the load operations. The single reaper thread reaps the
+ completions in batches, invokes the completion handlers and then submits the I/O prepared by the handlers (the next
+ chunks) at once. The files are closed asynchronously via the ring too. The open is the synchronous system call in the
+ calling thread (no thread hand-off). The heap buffers content is copied via the pooled direct bounce buffers.
+ After the engine is closed no more requests are prepared: the I/O fails and the files are closed synchronously.
+ */
+final class UringIoEngine
+implements IoEngine {
+
+	private static final int ENOENT = 2;
+	private static final int EPERM = 1;
+	private static final int EACCES = 13;
+	private static final long NO_COMPLETION = -1;
+	private static final int ENGINE_CLOSED = Integer.MIN_VALUE;
+	private static final long REAP_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int REAP_BATCH_SIZE_MAX = 0x1_00;
+	private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	private final String name;
+	private final long ring;
+	private final Object submitLock = new Object();
+	private Request[] requests = new Request[0x1_00]; // guarded by the submit lock
+	private int[] freeSlots = new int[0x1_00]; // guarded by the submit lock
+	private int freeSlotsCount = 0; // guarded by the submit lock
+	private boolean submitPending = false; // guarded by the submit lock
+	private int inFlightCount = 0; // the prepared requests including the closes, guarded by the submit lock
+	private boolean destroyed = false; // guarded by the submit lock
+	private final DirectBufferPool bounceBuffPool;
+	private final Thread reaper;
+	private volatile boolean closed = false; // changed under the submit lock
+
+	/**
+	 @param name the name prefix for the reaper thread
+	 @param entries the submission queue size
+	 @param bounceBuffPool the direct buffers to perform the I/O for the heap buffers
+	 @throws IOException if the native library is not available or the ring setup failed
+	 */
+	UringIoEngine(final String name, final int entries, final DirectBufferPool bounceBuffPool)
+	throws IOException {
+		final var loadFailure = IoUring.loadFailure();
+		if (loadFailure != null) {
+			throw new IOException("Failed to load the native library \"" + IoUring.LIBRARY_NAME + "\"", loadFailure);
+		}
+		ring = IoUring.init(entries);
+		if (ring < 0) {
+			throw new IOException("Failed to set up the io_uring: " + IoUring.strerror((int) -ring));
+		}
+		this.name = name;
+		this.bounceBuffPool = bounceBuffPool;
+		for (var i = requests.length - 1; i >= 0; i --) {
+			requests[i] = new Request();
+			freeSlots[freeSlotsCount ++] = i;
+		}
+		reaper = new LogContextThreadFactory(name + "-uring", true).newThread(this::reapCompletions);
+		reaper.start();
+	}
+
+	@Override
+	public SyncableChannel open(final Path path, final Set<OpenOption> openOpts)
+	throws IOException {
+		var flags = 0;
+		for (final var openOpt : openOpts) {
+			if (StandardOpenOption.READ.equals(openOpt)) {
+				flags |= IoUring.OPEN_READ;
+			} else if (StandardOpenOption.WRITE.equals(openOpt)) {
+				flags |= IoUring.OPEN_WRITE;
+			} else if (StandardOpenOption.CREATE.equals(openOpt)) {
+				flags |= IoUring.OPEN_CREATE;
+			} else if (StandardOpenOption.TRUNCATE_EXISTING.equals(openOpt)) {
+				flags |= IoUring.OPEN_TRUNCATE;
+			} else if (DIRECT.equals(openOpt)) {
+				flags |= IoUring.OPEN_DIRECT;
+			} else {
+				throw new UnsupportedOperationException("Unsupported open option: " + openOpt);
+			}
+		}
+		final var fd = IoUring.open(path.toString(), flags);
+		if (fd < 0) {
+			switch (-fd) {
+				case ENOENT:
+					throw new NoSuchFileException(path.toString());
+				case EPERM:
+				case EACCES:
+					throw new AccessDeniedException(path.toString());
+				default:
+					throw new FileSystemException(path.toString(), null, IoUring.strerror(-fd));
+			}
+		}
+		return new UringChannel(this, fd, path);
+	}
+
+	@SuppressWarnings("unchecked")
+	<A> void submit(
+		final boolean readFlag, final int fd, final ByteBuffer userBuff, final long position, final A attach,
+		final CompletionHandler<Integer, ? super A> handler
+	) {
+		final int len;
+		final ByteBuffer buff;
+		if (userBuff.isDirect()) {
+			len = userBuff.remaining();
+			buff = userBuff;
+		} else {
+			// the native I/O requires the direct buffer, copy the heap buffer content via the bounce buffer, the
+			// partial read/write is allowed if the bounce buffer is smaller
+			buff = bounceBuffPool.lease();
+			len = Math.min(userBuff.remaining(), buff.capacity());
+			buff.limit(len);
+			if (!readFlag) {
+				final var src = userBuff.duplicate();
+				src.limit(src.position() + len);
+				buff.put(src).flip();
+			}
+		}
+		var rc = 0;
+		synchronized (submitLock) {
+			if (closed) {
+				rc = ENGINE_CLOSED;
+			} else {
+				final var slot = leaseSlot();
+				final var request = requests[slot];
+				request.readFlag = readFlag;
+				request.buff = buff;
+				request.userBuff = userBuff;
+				request.userBuffPos = userBuff.position();
+				request.len = len;
+				request.attach = attach;
+				request.handler = (CompletionHandler<Integer, Object>) handler;
+				rc = readFlag ?
+					IoUring.prepRead(ring, fd, buff, buff.position(), len, position, slot) :
+					IoUring.prepWrite(ring, fd, buff, buff.position(), len, position, slot);
+				if (rc < 0) {
+					request.clear();
+					freeSlots[freeSlotsCount ++] = slot;
+				} else {
+					submitPending = true;
+					inFlightCount ++;
+				}
+			}
+		}
+		if (rc < 0) {
+			if (buff != userBuff) {
+				bounceBuffPool.release(buff);
+			}
+			handler.failed(
+				rc == ENGINE_CLOSED ? new ClosedChannelException() : new IOException(IoUring.strerror(-rc)), attach
+			);
+		}
+	}
+
+	/**
+	 Should be invoked under the submit lock
+	 */
+	private int leaseSlot() {
+		if (freeSlotsCount == 0) {
+			final var oldCapacity = requests.length;
+			final var newRequests = new Request[2 * oldCapacity];
+			System.arraycopy(requests, 0, newRequests, 0, oldCapacity);
+			freeSlots = new int[2 * oldCapacity];
+			for (var i = newRequests.length - 1; i >= oldCapacity; i --) {
+				newRequests[i] = new Request();
+				freeSlots[freeSlotsCount ++] = i;
+			}
+			requests = newRequests;
+		}
+		return freeSlots[-- freeSlotsCount];
+	}
+
+	void close(final int fd) {
+		synchronized (submitLock) {
+			if (!closed && IoUring.prepClose(ring, fd, NO_COMPLETION) >= 0) {
+				submitPending = true;
+				inFlightCount ++;
+				return;
+			}
+		}
+		// the engine is closed or the ring is full
+		final var rc = IoUring.close(fd);
+		if (rc < 0) {
+			Loggers.ERR.warn("{}: failed to close the file descriptor {}: {}", name, fd, IoUring.strerror(-rc));
+		}
+	}
+
+	@Override
+	public void flush() {
+		synchronized (submitLock) {
+			if (submitPending && !destroyed) {
+				submitPending = false;
+				final var rc = IoUring.submit(ring);
+				if (rc < 0) {
+					Loggers.ERR.error("{}: io_uring submit failure: {}", name, IoUring.strerror(-rc));
+				}
+			}
+		}
+	}
+
+	private void reapCompletions() {
+		final var userData = new long[REAP_BATCH_SIZE_MAX];
+		final var results = new int[REAP_BATCH_SIZE_MAX];
+		while (!closed) {
+			if (!reapBatch(userData, results)) {
+				break;
+			}
+			flush(); // submit the I/O prepared by the completion handlers
+		}
+	}
+
+	/**
+	 Reaps the completions batch and invokes the completion handlers
+	 @return false if the reaping failed
+	 */
+	private boolean reapBatch(final long[] userData, final int[] results) {
+		final var n = IoUring.reap(ring, userData, results, REAP_TIMEOUT_NANOS);
+		if (n < 0) {
+			Loggers.ERR.error("{}: io_uring completions reaping failure: {}", name, IoUring.strerror(-n));
+			return false;
+		}
+		if (n > 0) {
+			final Request[] requests;
+			synchronized (submitLock) {
+				requests = this.requests;
+			}
+			for (var i = 0; i < n; i ++) {
+				if (userData[i] != NO_COMPLETION) {
+					requests[(int) userData[i]].complete(results[i]);
+				}
+			}
+			synchronized (submitLock) {
+				for (var i = 0; i < n; i ++) {
+					if (userData[i] != NO_COMPLETION) {
+						final var slot = (int) userData[i];
+						final var request = requests[slot];
+						if (request.buff != request.userBuff) {
+							bounceBuffPool.release(request.buff);
+						}
+						request.clear();
+						freeSlots[freeSlotsCount ++] = slot;
+					}
+				}
+				inFlightCount -= n;
+			}
+		}
+		return true;
+	}
+
+	private int inFlightCount() {
+		synchronized (submitLock) {
+			return inFlightCount;
+		}
+	}
+
+	/**
+	 Stops the requests preparation, submits the already prepared ones (like the closes) and waits for their
+	 completion before destroying the ring. The ring is not destroyed (leaked) if the requests are still in flight
+	 after the timeout because the kernel may still access their buffers.
+	 */
+	@Override
+	public void close() {
+		synchronized (submitLock) {
+			closed = true;
+		}
+		try {
+			reaper.join(TimeUnit.SECONDS.toMillis(1));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (reaper.isAlive()) {
+			Loggers.ERR.warn("{}: the io_uring completions reaper is still alive, the ring is not destroyed", name);
+			return;
+		}
+		flush();
+		final var userData = new long[REAP_BATCH_SIZE_MAX];
+		final var results = new int[REAP_BATCH_SIZE_MAX];
+		final var deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+		while (inFlightCount() > 0 && System.nanoTime() < deadline) {
+			if (!reapBatch(userData, results)) {
+				break;
+			}
+		}
+		final var inFlightCount = inFlightCount();
+		if (inFlightCount > 0) {
+			Loggers.ERR.warn(
+				"{}: {} io_uring requests are still in flight, the ring is not destroyed", name, inFlightCount
+			);
+			return;
+		}
+		synchronized (submitLock) {
+			destroyed = true;
+			IoUring.destroy(ring);
+		}
+		bounceBuffPool.clear();
+	}
+
+	/**
+	 The reusable state of the I/O request in flight
+	 */
+	private static final class Request {
+
+		private boolean readFlag;
+		private ByteBuffer buff;
+		private ByteBuffer userBuff;
+		private int userBuffPos;
+		private int len;
+		private Object attach;
+		private CompletionHandler<Integer, Object> handler;
+
+		void complete(final int result) {
+			if (result < 0) {
+				handler.failed(new IOException(IoUring.strerror(-result)), attach);
+			} else if (readFlag && result == 0 && len > 0) { // the end of the file
+				handler.completed(-1, attach);
+			} else {
+				if (readFlag && buff != userBuff) {
+					buff.limit(buff.position() + result);
+					userBuff.put(buff);
+				} else {
+					userBuff.position(userBuffPos + result);
+				}
+				handler.completed(result, attach);
+			}
+		}
+
+		void clear() {
+			buff = null;
+			userBuff = null;
+			attach = null;
+			handler = null;
+		}
+	}
+
+	/**
+	 The file channel which I/O is performed via the engine's ring
+	 */
+	private static final class UringChannel
+	implements SyncableChannel {
+
+		private final UringIoEngine engine;
+		private final int fd;
+		private final Path path;
+		private volatile boolean open = true;
+
+		UringChannel(final UringIoEngine engine, final int fd, final Path path) {
+			this.engine = engine;
+			this.fd = fd;
+			this.path = path;
+		}
+
+		@Override
+		public final <A> void read(
+			final ByteBuffer dst, final long position, final A attach,
+			final CompletionHandler<Integer, ? super A> handler
+		) {
+			engine.submit(true, fd, dst, position, attach, handler);
+		}
+
+		@Override
+		public final <A> void write(
+			final ByteBuffer src, final long position, final A attach,
+			final CompletionHandler<Integer, ? super A> handler
+		) {
+			engine.submit(false, fd, src, position, attach, handler);
+		}
+
+		@Override
+		public final void sync(final boolean metaData)
+		throws IOException {
+			final var rc = IoUring.sync(fd, metaData);
+			if (rc < 0) {
+				throw new IOException("Failed to sync the file \"" + path + "\": " + IoUring.strerror(-rc));
+			}
+		}
+
+		@Override
+		public final boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public final void close() {
+			if (open) {
+				open = false;
+				engine.close(fd);
+			}
+		}
+
+		@Override
+		public final String toString() {
+			return "uring channel #" + fd + " (" + path + ")";
+		}
+	}
+}
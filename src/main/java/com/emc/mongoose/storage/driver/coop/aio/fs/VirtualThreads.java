@@ -0,0 +1,41 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ The virtual threads (JDK 21+) accessed reflectively so the driver still may be built and run on the older JDKs
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 @param namePrefix the prefix of the thread names, the thread number is appended
+	 @return the executor starting the new virtual thread for each task
+	 @throws UnsupportedOperationException if the virtual threads are not supported by the JDK
+	 */
+	static Executor newExecutor(final String namePrefix)
+	throws UnsupportedOperationException {
+		final ThreadFactory threadFactory;
+		try {
+			final var lookup = MethodHandles.publicLookup();
+			final var builderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			final var builder = lookup
+				.findStatic(Thread.class, "ofVirtual", MethodType.methodType(builderClass))
+				.invoke();
+			final var namedBuilder = lookup
+				.findVirtual(builderClass, "name", MethodType.methodType(builderClass, String.class, long.class))
+				.invoke(builder, namePrefix, 0L);
+			threadFactory = (ThreadFactory) lookup
+				.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class))
+				.invoke(namedBuilder);
+		} catch (final Throwable e) {
+			throw new UnsupportedOperationException("The virtual threads are not supported", e);
+		}
+		return task -> threadFactory.newThread(task).start();
+	}
+}
@@ -0,0 +1,150 @@
+package com.emc.mongoose.storage.driver.coop.aio.mem;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.storage.driver.coop.aio.BoxedSizes;
+import com.emc.mongoose.storage.driver.coop.aio.ObjectPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ The asynchronous channel to the in-memory item content. The content is copied and the completion handler is invoked
+ by the executor thread, so the completion never recurses into the invoking thread. The channel returns itself back to
+ the pool on close and the I/O tasks are pooled too, so nothing is allocated per I/O.
+ */
+final class MemChannel
+implements AsyncChannel {
+
+	private final Executor executor;
+	private final ObjectPool<MemChannel> pool;
+	private final ObjectPool<IoTask> taskPool;
+	private volatile MemSegment segment = null; // null if closed
+
+	MemChannel(final Executor executor, final ObjectPool<MemChannel> pool, final ObjectPool<IoTask> taskPool) {
+		this.executor = executor;
+		this.pool = pool;
+		this.taskPool = taskPool;
+	}
+
+	MemChannel open(final MemSegment segment) {
+		this.segment = segment;
+		return this;
+	}
+
+	@Override
+	public final <A> void read(
+		final ByteBuffer dst, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		execute(false, dst, position, attach, handler);
+	}
+
+	@Override
+	public final <A> void write(
+		final ByteBuffer src, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		execute(true, src, position, attach, handler);
+	}
+
+	private <A> void execute(
+		final boolean writeFlag, final ByteBuffer buff, final long position, final A attach,
+		final CompletionHandler<Integer, ? super A> handler
+	) {
+		final var segment = this.segment;
+		if (segment == null) {
+			handler.failed(new ClosedChannelException(), attach);
+			return;
+		}
+		final var task = taskPool.lease().init(segment, writeFlag, buff, position, attach, handler);
+		try {
+			executor.execute(task);
+		} catch (final RejectedExecutionException e) {
+			task.clear();
+			taskPool.release(task);
+			handler.failed(e, attach);
+		}
+	}
+
+	@Override
+	public final boolean isOpen() {
+		return segment != null;
+	}
+
+	@Override
+	public final void close() {
+		synchronized (this) {
+			if (segment == null) {
+				return;
+			}
+			segment = null;
+		}
+		pool.release(this);
+	}
+
+	/**
+	 The reusable I/O task, returns itself back to the pool before the I/O
+	 */
+	static final class IoTask
+	implements Runnable {
+
+		private final ObjectPool<IoTask> pool;
+		private MemSegment segment;
+		private boolean writeFlag;
+		private ByteBuffer buff;
+		private long position;
+		private Object attach;
+		private CompletionHandler<Integer, Object> handler;
+
+		IoTask(final ObjectPool<IoTask> pool) {
+			this.pool = pool;
+		}
+
+		@SuppressWarnings("unchecked")
+		<A> IoTask init(
+			final MemSegment segment, final boolean writeFlag, final ByteBuffer buff, final long position,
+			final A attach, final CompletionHandler<Integer, ? super A> handler
+		) {
+			this.segment = segment;
+			this.writeFlag = writeFlag;
+			this.buff = buff;
+			this.position = position;
+			this.attach = attach;
+			this.handler = (CompletionHandler<Integer, Object>) handler;
+			return this;
+		}
+
+		void clear() {
+			segment = null;
+			buff = null;
+			attach = null;
+			handler = null;
+		}
+
+		@Override
+		public final void run() {
+			final var segment = this.segment;
+			final var writeFlag = this.writeFlag;
+			final var buff = this.buff;
+			final var position = this.position;
+			final var attach = this.attach;
+			final var handler = this.handler;
+			clear();
+			pool.release(this);
+			final int n;
+			if (writeFlag) {
+				try {
+					n = segment.write(buff, position);
+				} catch (final IOException e) {
+					handler.failed(e, attach);
+					return;
+				}
+			} else {
+				n = segment.read(buff, position);
+			}
+			handler.completed(BoxedSizes.valueOf(n), attach);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.emc.mongoose.storage.driver.coop.aio.mem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ The item content stored in the direct (off-heap) buffer. The buffer is reallocated if the content grows beyond its
+ capacity, the store capacity is reserved for the growth.
+ */
+final class MemSegment {
+
+	private static final int CAPACITY_MAX = Integer.MAX_VALUE - 8;
+
+	private final MemStore store;
+	private final String name;
+	// the store capacity accounted for this segment, negative after the segment is removed from the store
+	private final AtomicLong reserved;
+	private ByteBuffer buff; // guarded by this
+	private long size = 0; // guarded by this
+	// the neighbours in the store creation order list, guarded by the store lock
+	MemSegment earlier = null;
+	MemSegment later = null;
+
+	/**
+	 @param store the store to reserve the capacity from
+	 @param name the segment name in the store
+	 @param capacity the initial capacity which should be already reserved
+	 */
+	MemSegment(final MemStore store, final String name, final int capacity) {
+		this.store = store;
+		this.name = name;
+		this.reserved = new AtomicLong(capacity);
+		this.buff = ByteBuffer.allocateDirect(capacity);
+	}
+
+	String name() {
+		return name;
+	}
+
+	/**
+	 Marks the segment as removed from the store, doesn't block so may be invoked while the other segment is locked
+	 @return the store capacity to release, 0 if already removed
+	 */
+	long removed() {
+		return Math.max(0, reserved.getAndSet(-1));
+	}
+
+	/**
+	 @return false if the segment is already removed so the given reserved growth should be released by the caller
+	 */
+	private boolean grown(final long growth) {
+		long n;
+		do {
+			n = reserved.get();
+			if (n < 0) {
+				return false;
+			}
+		} while (!reserved.compareAndSet(n, n + growth));
+		return true;
+	}
+
+	/**
+	 Empties the segment to store the new content with the same name instead of the new segment allocation
+	 @param capacity the capacity required for the new content
+	 @return false if the segment is already removed or its capacity is less than required or more than twice bigger
+	 */
+	synchronized boolean reuse(final int capacity) {
+		final var buffCapacity = buff.capacity();
+		if (reserved.get() < 0 || buffCapacity < capacity || buffCapacity / 2 > capacity) {
+			return false;
+		}
+		size = 0;
+		return true;
+	}
+
+	synchronized long size() {
+		return size;
+	}
+
+	/**
+	 @return the count of the bytes read, -1 if the position is not less than the content size
+	 */
+	synchronized int read(final ByteBuffer dst, final long position) {
+		if (position >= size) {
+			return -1;
+		}
+		final var n = (int) Math.min(dst.remaining(), size - position);
+		// the buffer is not shared so its position and limit may be changed while locked w/o the duplicate allocation
+		buff.limit((int) position + n).position((int) position);
+		dst.put(buff);
+		buff.clear();
+		return n;
+	}
+
+	/**
+	 @return the count of the bytes written
+	 @throws IOException if the content size limit is exceeded or there's no free space in the store
+	 */
+	synchronized int write(final ByteBuffer src, final long position)
+	throws IOException {
+		final var n = src.remaining();
+		final var end = position + n;
+		if (end > CAPACITY_MAX) {
+			throw new IOException("The content size limit exceeded: " + end);
+		}
+		final var capacity = buff.capacity();
+		if (end > capacity) {
+			final var newCapacity = (int) Math.max(end, Math.min(2L * capacity, CAPACITY_MAX));
+			final var growth = newCapacity - capacity;
+			if (!store.reserve(growth)) {
+				throw new IOException("No free space to write " + n + " bytes @ " + position);
+			}
+			if (!grown(growth)) {
+				// removed (deleted, replaced or evicted) meanwhile, the growth is not accounted for this segment
+				store.release(growth);
+			}
+			final var newBuff = ByteBuffer.allocateDirect(newCapacity);
+			buff.clear();
+			newBuff.put(buff);
+			buff = newBuff;
+		}
+		buff.limit((int) end).position((int) position);
+		buff.put(src);
+		buff.clear();
+		if (end > size) {
+			size = end;
+		}
+		return n;
+	}
+}
@@ -0,0 +1,207 @@
+package com.emc.mongoose.storage.driver.coop.aio.mem;
+
+import com.emc.mongoose.base.config.IllegalConfigurationException;
+import com.emc.mongoose.base.data.DataInput;
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.Item;
+import com.emc.mongoose.base.item.ItemFactory;
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.Operation;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.emc.mongoose.base.logging.Loggers;
+import com.emc.mongoose.base.storage.Credential;
+import com.emc.mongoose.storage.driver.coop.aio.AioStorageDriverBase;
+import com.emc.mongoose.storage.driver.coop.aio.IoExecutor;
+import com.emc.mongoose.storage.driver.coop.aio.ObjectPool;
+
+import com.github.akurilov.confuse.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ The storage driver keeping the items content in the off-heap memory. The whole data path (the content generation,
+ the copy, the ranges update and the read verification) is the same as for the files but without the device latency,
+ so it may be used to measure the driver's own cost per operation.
+ */
+public class MemStorageDriver<I extends Item, O extends Operation<I>>
+extends AioStorageDriverBase<I, O> {
+
+	private static final int SEGMENT_CAPACITY_MAX = Integer.MAX_VALUE - 8;
+	private static final int IO_TASK_POOL_CAPACITY = 0x1_00_00;
+
+	private final MemStore store;
+	private final IoExecutor ioExecutor;
+	private final ObjectPool<MemChannel.IoTask> ioTaskPool;
+	private final ObjectPool<MemChannel> channelPool;
+
+	public MemStorageDriver(
+		final String testStepId, final DataInput dataInput, final Config storageConfig, final boolean verifyFlag,
+		final int batchSize
+	) throws IllegalConfigurationException {
+		super(testStepId, dataInput, storageConfig, verifyFlag, batchSize);
+		requestAuthTokenFunc = null; // disable
+		final var memConfig = storageConfig.configVal("driver-aio-mem");
+		final var capacity = memConfig.longVal("capacity");
+		if (capacity <= 0) {
+			throw new IllegalConfigurationException("Invalid memory capacity value: " + capacity);
+		}
+		store = MemStore.attach(capacity, memConfig.boolVal("evict"));
+		final var ioConfig = storageConfig.configVal("driver-aio-io");
+		final var ioThreads = ioConfig.intVal("threads");
+		ioExecutor = new IoExecutor(
+			testStepId + "-io", ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors(),
+			ioConfig.stringVal("cpus"), metrics
+		);
+		ioTaskPool = new ObjectPool<>(IO_TASK_POOL_CAPACITY, this::newIoTask);
+		// up to 2 channels (source and destination) per operation in flight
+		channelPool = new ObjectPool<>(
+			concurrencyLimit > 0 ? Math.min(2 * concurrencyLimit, IO_TASK_POOL_CAPACITY) : IO_BUFF_POOL_CAPACITY_MAX,
+			this::newChannel
+		);
+	}
+
+	private MemChannel.IoTask newIoTask() {
+		return new MemChannel.IoTask(ioTaskPool);
+	}
+
+	private MemChannel newChannel() {
+		return new MemChannel(ioExecutor, channelPool, ioTaskPool);
+	}
+
+	static String itemName(final String parentPath, final String itemName) {
+		if (parentPath == null || parentPath.isEmpty() || itemName.startsWith(parentPath)) {
+			return itemName;
+		} else if (parentPath.endsWith("/")) {
+			return parentPath + itemName;
+		} else {
+			return parentPath + "/" + itemName;
+		}
+	}
+
+	/**
+	 @return the name of the existing item to delete, resolved against the destination path if any or the source path
+	 otherwise
+	 */
+	static String targetName(final Operation<? extends Item> op) {
+		final var dstPath = op.dstPath();
+		final var parentPath = dstPath == null || dstPath.isEmpty() ? op.srcPath() : dstPath;
+		return itemName(parentPath, op.item().name());
+	}
+
+	@Override
+	protected AsyncChannel openSourceChannel(final DataOperation<? extends DataItem> dataOp) {
+		final var srcPath = dataOp.srcPath();
+		final var opType = dataOp.type();
+		if ((srcPath == null || srcPath.isEmpty()) && OpType.CREATE.equals(opType)) {
+			return null; // not a copy
+		}
+		final var segment = store.get(itemName(srcPath, dataOp.item().name()));
+		if (segment == null) {
+			// the failed copy source should be marked as the I/O failure
+			dataOp.status(
+				OpType.CREATE.equals(opType) ? Operation.Status.FAIL_IO : Operation.Status.RESP_FAIL_NOT_FOUND
+			);
+			return null;
+		}
+		return channelPool.lease().open(segment);
+	}
+
+	@Override
+	protected AsyncChannel openDestinationChannel(final DataOperation<? extends DataItem> dataOp) {
+		final var name = itemName(dataOp.dstPath(), dataOp.item().name());
+		final MemSegment segment;
+		if (OpType.CREATE.equals(dataOp.type())) {
+			final long size;
+			try {
+				size = dataOp.item().size();
+			} catch (final IOException e) {
+				dataOp.status(Operation.Status.FAIL_IO);
+				return null;
+			}
+			segment = store.create(name, (int) Math.min(size, SEGMENT_CAPACITY_MAX));
+			if (segment == null) {
+				dataOp.status(Operation.Status.RESP_FAIL_SPACE);
+				return null;
+			}
+		} else {
+			segment = store.get(name);
+			if (segment == null) {
+				dataOp.status(Operation.Status.RESP_FAIL_NOT_FOUND);
+				return null;
+			}
+		}
+		return channelPool.lease().open(segment);
+	}
+
+	@Override @SuppressWarnings("unchecked")
+	protected void invokeDelete(final DataOperation<? extends DataItem> dataOp) {
+		if (store.delete(targetName(dataOp))) {
+			completeOperation((O) dataOp, null, null);
+		} else {
+			dataOp.status(Operation.Status.RESP_FAIL_NOT_FOUND);
+			finishOperation((O) dataOp, null, null);
+		}
+	}
+
+	@Override
+	protected String requestNewPath(final String path) {
+		return path;
+	}
+
+	@Override
+	protected String requestNewAuthToken(final Credential credential) {
+		throw new AssertionError("Should not be invoked");
+	}
+
+	/**
+	 Lists the stored items ordered by name. The item offset is parsed from the name part following the prefix if
+	 possible.
+	 */
+	@Override
+	public List<I> list(
+		final ItemFactory<I> itemFactory, final String path, final String prefix, final int idRadix,
+		final I lastPrevItem, final int count
+	) throws IOException {
+		final var namePrefix = itemName(path, prefix == null ? "" : prefix);
+		final var namePrefixLength = namePrefix.length();
+		final var segments = store.segments(namePrefix, lastPrevItem == null ? null : lastPrevItem.name());
+		final List<I> items = new ArrayList<>(count);
+		for (final var entry : segments.entrySet()) {
+			if (items.size() == count) {
+				break;
+			}
+			final var name = entry.getKey();
+			long offset;
+			try {
+				offset = Long.parseLong(name.substring(namePrefixLength), idRadix);
+			} catch (final NumberFormatException e) {
+				offset = 0; // read verification should be disabled
+			}
+			items.add(itemFactory.getItem(name, offset, entry.getValue().size()));
+		}
+		return items;
+	}
+
+	@Override
+	public void adjustIoBuffers(final long avgTransferSize, final OpType opType) {
+	}
+
+	@Override
+	protected void doClose()
+	throws IOException {
+		store.detach(); // the content is kept for the next drivers
+		super.doClose();
+		Loggers.MSG.info("{}: memory store stats: {}", stepId, store);
+		ioExecutor.shutdownNow();
+		ioTaskPool.clear();
+		channelPool.clear();
+	}
+
+	@Override
+	public final String toString() {
+		return String.format(super.toString(), "mem");
+	}
+}
@@ -0,0 +1,210 @@
+package com.emc.mongoose.storage.driver.coop.aio.mem;
+
+import com.emc.mongoose.base.config.IllegalConfigurationException;
+
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ The in-memory items content storage shared by all the drivers in the process, so the content created by one load step
+ may be read by the next ones. The total capacity of the content segments is limited. If the eviction is enabled the
+ earliest created segments are evicted to free the capacity, otherwise the write fails. The drivers working at the same
+ time should use the same capacity limit and the eviction flag, the store may be reconfigured only when no driver uses
+ it.
+ */
+final class MemStore {
+
+	private static MemStore INSTANCE = null;
+	private static int USERS_COUNT = 0;
+
+	private final NavigableMap<String, MemSegment> segments = new ConcurrentSkipListMap<>();
+	private final AtomicLong usedCapacity = new AtomicLong(0);
+	private volatile long capacityLimit;
+	private volatile boolean evictFlag;
+	// the creation order list linked through the stored segments themselves, the map updates are guarded by this too
+	// so the list contains exactly the stored segments
+	private MemSegment earliest = null; // guarded by this
+	private MemSegment latest = null; // guarded by this
+
+	private MemStore(final long capacityLimit, final boolean evictFlag) {
+		this.capacityLimit = capacityLimit;
+		this.evictFlag = evictFlag;
+	}
+
+	/**
+	 Should be paired with the {@link #detach()} invocation when the store is not used anymore
+	 @return the shared store instance configured with the given capacity limit and the eviction flag
+	 @throws IllegalConfigurationException if the store is used by another driver configured differently
+	 */
+	static synchronized MemStore attach(final long capacityLimit, final boolean evictFlag)
+	throws IllegalConfigurationException {
+		if (INSTANCE == null) {
+			INSTANCE = new MemStore(capacityLimit, evictFlag);
+		} else if (USERS_COUNT == 0) {
+			INSTANCE.capacityLimit = capacityLimit;
+			INSTANCE.evictFlag = evictFlag;
+		} else if (INSTANCE.capacityLimit != capacityLimit || INSTANCE.evictFlag != evictFlag) {
+			throw new IllegalConfigurationException(
+				"The memory store is already used with the capacity " + INSTANCE.capacityLimit + " and the eviction "
+					+ (INSTANCE.evictFlag ? "enabled" : "disabled") + ", the concurrent drivers should use the same "
+					+ "values"
+			);
+		}
+		USERS_COUNT ++;
+		return INSTANCE;
+	}
+
+	/**
+	 Marks the store as not used by the driver anymore, the content is kept for the next drivers
+	 */
+	void detach() {
+		synchronized (MemStore.class) {
+			USERS_COUNT --;
+		}
+	}
+
+	/**
+	 Creates the new empty segment replacing the existing one if any. The existing segment is emptied and reused if
+	 its capacity fits.
+	 @param capacity the initial segment capacity
+	 @return the new segment or null if there's no free space
+	 */
+	MemSegment create(final String name, final int capacity) {
+		final var existingSegment = segments.get(name);
+		if (existingSegment != null && existingSegment.reuse(capacity)) {
+			synchronized (this) {
+				// move to the end of the creation order if not deleted meanwhile
+				if (existingSegment == segments.get(name)) {
+					unlink(existingSegment);
+					link(existingSegment);
+				}
+			}
+			return existingSegment;
+		}
+		if (!reserve(capacity)) {
+			return null;
+		}
+		final var segment = new MemSegment(this, name, capacity);
+		final MemSegment prevSegment;
+		synchronized (this) {
+			prevSegment = segments.put(name, segment);
+			if (prevSegment != null) {
+				unlink(prevSegment);
+			}
+			link(segment);
+		}
+		if (prevSegment != null) {
+			release(prevSegment.removed());
+		}
+		return segment;
+	}
+
+	MemSegment get(final String name) {
+		return segments.get(name);
+	}
+
+	/**
+	 @return false if there's no such segment
+	 */
+	boolean delete(final String name) {
+		final MemSegment segment;
+		synchronized (this) {
+			segment = segments.remove(name);
+			if (segment == null) {
+				return false;
+			}
+			unlink(segment);
+		}
+		release(segment.removed());
+		return true;
+	}
+
+	/**
+	 @return the segments with the names starting with the given prefix, ordered by name, starting after the given name
+	 (if not null)
+	 */
+	NavigableMap<String, MemSegment> segments(final String prefix, final String lastPrevName) {
+		final var tail = lastPrevName == null ?
+			segments.tailMap(prefix, true) : segments.tailMap(lastPrevName, false);
+		return tail.headMap(prefix + Character.MAX_VALUE, false);
+	}
+
+	/**
+	 Reserves the capacity evicting the earliest created segments if necessary and enabled
+	 @return false if there's no free space
+	 */
+	boolean reserve(final long size) {
+		long used;
+		while (true) {
+			used = usedCapacity.get();
+			if (used + size <= capacityLimit) {
+				if (usedCapacity.compareAndSet(used, used + size)) {
+					return true;
+				}
+			} else if (!evictFlag || !evictEarliest()) {
+				return false;
+			}
+		}
+	}
+
+	void release(final long size) {
+		usedCapacity.addAndGet(-size);
+	}
+
+	/**
+	 @return false if there's nothing to evict
+	 */
+	private boolean evictEarliest() {
+		MemSegment segment;
+		synchronized (this) {
+			segment = earliest;
+			if (segment == null) {
+				return false;
+			}
+			unlink(segment);
+			segments.remove(segment.name(), segment);
+		}
+		release(segment.removed());
+		return true;
+	}
+
+	/**
+	 Appends the segment to the creation order list, should be invoked holding the store lock
+	 */
+	private void link(final MemSegment segment) {
+		segment.earlier = latest;
+		segment.later = null;
+		if (latest == null) {
+			earliest = segment;
+		} else {
+			latest.later = segment;
+		}
+		latest = segment;
+	}
+
+	/**
+	 Removes the segment from the creation order list, should be invoked holding the store lock
+	 */
+	private void unlink(final MemSegment segment) {
+		final var earlier = segment.earlier;
+		final var later = segment.later;
+		if (earlier == null) {
+			earliest = later;
+		} else {
+			earlier.later = later;
+		}
+		if (later == null) {
+			latest = earlier;
+		} else {
+			later.earlier = earlier;
+		}
+		segment.earlier = null;
+		segment.later = null;
+	}
+
+	@Override
+	public String toString() {
+		return "items: " + segments.size() + ", used: " + usedCapacity.get() + "/" + capacityLimit + " bytes";
+	}
+}
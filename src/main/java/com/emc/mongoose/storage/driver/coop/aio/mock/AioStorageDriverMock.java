@@ -17,17 +17,30 @@ import com.github.akurilov.confuse.Config;
 import java.io.IOException;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AioStorageDriverMock<I extends Item, O extends Operation<I>>
 extends AioStorageDriverBase<I, O> {
 
 	private final Random rnd = new Random();
+	private final StorageModel storageModel;
+	private final TimerWheel<O> timerWheel;
+	private final int queueDepth;
+	private final AtomicInteger inFlightCount = new AtomicInteger(0);
 
 	protected AioStorageDriverMock(
 		final String testStepId, final DataInput dataInput, final Config storageConfig, final boolean verifyFlag,
 		final int batchSize
 	) throws IllegalConfigurationException {
 		super(testStepId, dataInput, storageConfig, verifyFlag, batchSize);
+		final var mockConfig = storageConfig.configVal("driver-aio-mock");
+		storageModel = new StorageModel(mockConfig);
+		// the operations are completed synchronously if the simulated storage is instant
+		timerWheel = storageModel.instant() ? null : new TimerWheel<>(testStepId, this::complete, this::interrupted);
+		queueDepth = mockConfig.intVal("queue-depth");
+		if (queueDepth < 0) {
+			throw new IllegalConfigurationException("Invalid queue depth value: " + queueDepth);
+		}
 	}
 
 	@Override
@@ -40,46 +53,94 @@ extends AioStorageDriverBase<I, O> {
 		return null;
 	}
 
+	/**
+	 Accepts the operation if the simulated storage queue is not full and completes it after the delay determined by
+	 the storage model
+	 */
 	@Override
-	protected final boolean submit(final O op)
+	protected final boolean submitOperation(final O op)
 	throws IllegalStateException {
+		if (queueDepth > 0 && inFlightCount.incrementAndGet() > queueDepth) {
+			inFlightCount.decrementAndGet();
+			return false;
+		}
 		op.startRequest();
 		op.finishRequest();
+		if (timerWheel == null) {
+			complete(op);
+		} else if (op instanceof DataOperation) {
+			final DataOperation dataOp = (DataOperation) op;
+			timerWheel.schedule(op, storageModel.delay(dataOp.type(), transferSize(dataOp)));
+		} else {
+			timerWheel.schedule(op, storageModel.delay(op.type(), 0));
+		}
+		return true;
+	}
+
+	private void complete(final O op) {
+		final var failFlag = storageModel.fail();
 		op.startResponse();
 		if (op instanceof DataOperation) {
 			final DataOperation dataOp = (DataOperation) op;
-			final DataItem dataItem = dataOp.item();
 			switch (dataOp.type()) {
 				case CREATE:
-					try {
-						dataOp.countBytesDone(dataItem.size());
-					} catch (final IOException ignored) {}
+				case UPDATE:
+					if (!failFlag) { // the failed operation transfers nothing
+						dataOp.countBytesDone(transferSize(dataOp));
+					}
 					break;
 				case READ:
 					dataOp.startDataResponse();
 					break;
-				case UPDATE:
-					final List<Range> fixedRanges = dataOp.fixedRanges();
-					if (fixedRanges == null || fixedRanges.isEmpty()) {
-						if (dataOp.hasMarkedRanges()) {
-							dataOp.countBytesDone(dataOp.markedRangesSize());
-						} else {
-							try {
-								dataOp.countBytesDone(dataItem.size());
-							} catch (final IOException ignored) {}
-						}
-					} else {
-						dataOp.countBytesDone(dataOp.markedRangesSize());
-					}
-					break;
 				default:
 					break;
 			}
 		}
 		op.finishResponse();
-		op.status(Operation.Status.SUCC);
+		op.status(failFlag ? Operation.Status.FAIL_IO : Operation.Status.SUCC);
+		done(op);
+	}
+
+	/**
+	 Finishes the operation still pending on close as interrupted, so its concurrency permit is not leaked
+	 */
+	private void interrupted(final O op) {
+		op.status(Operation.Status.INTERRUPTED);
+		done(op);
+	}
+
+	private void done(final O op) {
+		if (queueDepth > 0) {
+			inFlightCount.decrementAndGet();
+		}
 		handleCompleted(op);
-		return true;
+	}
+
+	/**
+	 @return the count of the bytes transferred by the data operation
+	 */
+	private static long transferSize(final DataOperation dataOp) {
+		final DataItem dataItem = dataOp.item();
+		try {
+			if (OpType.UPDATE.equals(dataOp.type())) {
+				final List<Range> fixedRanges = dataOp.fixedRanges();
+				if (fixedRanges == null || fixedRanges.isEmpty()) {
+					if (dataOp.hasMarkedRanges()) {
+						return dataOp.markedRangesSize();
+					} else {
+						return dataItem.size();
+					}
+				} else {
+					return dataOp.markedRangesSize();
+				}
+			} else if (OpType.DELETE.equals(dataOp.type())) {
+				return 0;
+			} else {
+				return dataItem.size();
+			}
+		} catch (final IOException ignored) {
+			return 0;
+		}
 	}
 
 	@Override
@@ -104,4 +165,13 @@ extends AioStorageDriverBase<I, O> {
 	@Override
 	public void adjustIoBuffers(final long avgTransferSize, final OpType opType) {
 	}
+
+	@Override
+	protected void doClose()
+	throws IOException {
+		if (timerWheel != null) {
+			timerWheel.close();
+		}
+		super.doClose();
+	}
 }
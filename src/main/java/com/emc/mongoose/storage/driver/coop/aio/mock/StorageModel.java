@@ -0,0 +1,135 @@
+package com.emc.mongoose.storage.driver.coop.aio.mock;
+
+import com.emc.mongoose.base.config.IllegalConfigurationException;
+import com.emc.mongoose.base.item.op.OpType;
+
+import com.github.akurilov.confuse.Config;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ The simulated storage characteristics: the latency per operation type, the aggregate bandwidth shared by all the
+ operations and the rate of the failed operations.
+ */
+final class StorageModel {
+
+	enum Distribution {
+		/** Always the configured latency */
+		FIXED,
+		/** Uniformly distributed in the range [0, 2 * latency) */
+		UNIFORM,
+		/** Exponentially distributed with the configured latency as the mean */
+		EXPONENTIAL,
+	}
+
+	private final Distribution distribution;
+	private final long createLatency;
+	private final long readLatency;
+	private final long updateLatency;
+	private final long deleteLatency;
+	private final double nanosPerByte;
+	private final double failRate;
+	private final AtomicLong busyUntil = new AtomicLong(Long.MIN_VALUE);
+
+	StorageModel(final Config mockConfig)
+	throws IllegalConfigurationException {
+		final var latencyConfig = mockConfig.configVal("latency");
+		final var distributionName = latencyConfig.stringVal("distribution");
+		try {
+			distribution = Distribution.valueOf(distributionName.toUpperCase());
+		} catch (final IllegalArgumentException e) {
+			throw new IllegalConfigurationException("Unknown latency distribution: " + distributionName);
+		}
+		createLatency = latencyNanos(latencyConfig, "create");
+		readLatency = latencyNanos(latencyConfig, "read");
+		updateLatency = latencyNanos(latencyConfig, "update");
+		deleteLatency = latencyNanos(latencyConfig, "delete");
+		final var bandwidth = mockConfig.longVal("bandwidth");
+		if (bandwidth < 0) {
+			throw new IllegalConfigurationException("Invalid bandwidth value: " + bandwidth);
+		}
+		nanosPerByte = bandwidth > 0 ? ((double) TimeUnit.SECONDS.toNanos(1)) / bandwidth : 0;
+		failRate = mockConfig.doubleVal("fail-rate");
+		if (failRate < 0 || failRate > 1) {
+			throw new IllegalConfigurationException("Invalid fail rate value: " + failRate + ", should be in [0, 1]");
+		}
+	}
+
+	private static long latencyNanos(final Config latencyConfig, final String opTypeName)
+	throws IllegalConfigurationException {
+		final var latencyMicros = latencyConfig.intVal(opTypeName);
+		if (latencyMicros < 0) {
+			throw new IllegalConfigurationException("Invalid " + opTypeName + " latency value: " + latencyMicros);
+		}
+		return TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+	}
+
+	/**
+	 @return true if all the operations are completed immediately
+	 */
+	boolean instant() {
+		return createLatency == 0 && readLatency == 0 && updateLatency == 0 && deleteLatency == 0 && nanosPerByte == 0;
+	}
+
+	/**
+	 Reserves the bandwidth for the operation transfer
+	 @param opType the operation type
+	 @param transferSize the count of the bytes to transfer
+	 @return the time in nanoseconds from now when the operation should be completed
+	 */
+	long delay(final OpType opType, final long transferSize) {
+		var delay = latency(opType);
+		if (nanosPerByte > 0 && transferSize > 0) {
+			final var now = System.nanoTime();
+			final var transferTime = (long) (transferSize * nanosPerByte);
+			long prevBusyUntil;
+			long transferStart;
+			do {
+				prevBusyUntil = busyUntil.get();
+				transferStart = Math.max(now, prevBusyUntil);
+			} while (!busyUntil.compareAndSet(prevBusyUntil, transferStart + transferTime));
+			delay += transferStart + transferTime - now;
+		}
+		return delay;
+	}
+
+	private long latency(final OpType opType) {
+		final long latency;
+		switch (opType) {
+			case CREATE:
+				latency = createLatency;
+				break;
+			case READ:
+				latency = readLatency;
+				break;
+			case UPDATE:
+				latency = updateLatency;
+				break;
+			case DELETE:
+				latency = deleteLatency;
+				break;
+			default:
+				return 0;
+		}
+		if (latency == 0) {
+			return 0;
+		}
+		switch (distribution) {
+			case UNIFORM:
+				return ThreadLocalRandom.current().nextLong(2 * latency);
+			case EXPONENTIAL:
+				return (long) (-latency * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+			default:
+				return latency;
+		}
+	}
+
+	/**
+	 @return true if the operation should be failed
+	 */
+	boolean fail() {
+		return failRate > 0 && ThreadLocalRandom.current().nextDouble() < failRate;
+	}
+}
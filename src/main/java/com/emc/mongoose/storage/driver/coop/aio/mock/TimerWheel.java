@@ -0,0 +1,180 @@
+package com.emc.mongoose.storage.driver.coop.aio.mock;
+
+import com.emc.mongoose.base.logging.LogContextThreadFactory;
+import com.emc.mongoose.base.logging.LogUtil;
+import com.emc.mongoose.base.logging.Loggers;
+
+import org.apache.logging.log4j.Level;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ The hashed timer wheel invoking the action for the scheduled tasks after their delays. The scheduled tasks are
+ collected by the lock-free queue and distributed over the wheel buckets by the single ticking thread, so the cost of the
+ scheduling doesn't depend on the count of the tasks pending. The action is invoked by the ticking thread and should be
+ short. The tasks still pending on close are passed to the cancel action, so their owner may finish them.
+ */
+final class TimerWheel<T>
+implements AutoCloseable {
+
+	private static final long TICK_NANOS = 100_000; // 0.1 ms
+	private static final int WHEEL_SIZE = 0x10_00;
+	private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+	private final String name;
+	private final Consumer<T> action;
+	private final Consumer<T> cancelAction;
+	private final Timeout[] buckets = new Timeout[WHEEL_SIZE]; // accessed by the ticking thread only
+	private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+	private final Thread ticker;
+	private final long startTime;
+	private long tick = 0; // accessed by the ticking thread only
+
+	/**
+	 @param action the action to invoke for the task after its delay
+	 @param cancelAction the action to invoke for the task still pending on close
+	 */
+	TimerWheel(final String name, final Consumer<T> action, final Consumer<T> cancelAction) {
+		this.name = name;
+		this.action = action;
+		this.cancelAction = cancelAction;
+		startTime = System.nanoTime();
+		ticker = new LogContextThreadFactory(name + "-timer", true).newThread(this::run);
+		ticker.start();
+	}
+
+	/**
+	 @param task the task to invoke the action for
+	 @param delay the delay in nanoseconds, the precision is limited by the tick duration (0.1 ms)
+	 */
+	void schedule(final T task, final long delay) {
+		scheduled.add(new Timeout(task, System.nanoTime() + delay));
+	}
+
+	private void run() {
+		try {
+			while (!ticker.isInterrupted()) {
+				final var tickEnd = startTime + (tick + 1) * TICK_NANOS;
+				long waitTime;
+				while ((waitTime = tickEnd - System.nanoTime()) > 0) {
+					LockSupport.parkNanos(waitTime);
+					if (ticker.isInterrupted()) {
+						return;
+					}
+				}
+				distributeScheduled();
+				expire();
+				tick ++;
+			}
+		} finally {
+			cancelPending();
+		}
+	}
+
+	private void distributeScheduled() {
+		Timeout timeout;
+		while (null != (timeout = scheduled.poll())) {
+			final var timeoutTick = Math.max((timeout.deadline - startTime) / TICK_NANOS, tick);
+			timeout.rounds = (timeoutTick - tick) / WHEEL_SIZE;
+			final var bucketIdx = (int) (timeoutTick & (WHEEL_SIZE - 1));
+			timeout.next = buckets[bucketIdx];
+			buckets[bucketIdx] = timeout;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expire() {
+		final var bucketIdx = (int) (tick & (WHEEL_SIZE - 1));
+		Timeout prev = null;
+		var timeout = buckets[bucketIdx];
+		while (timeout != null) {
+			final var next = timeout.next;
+			if (timeout.rounds > 0) {
+				timeout.rounds --;
+				prev = timeout;
+			} else {
+				if (prev == null) {
+					buckets[bucketIdx] = next;
+				} else {
+					prev.next = next;
+				}
+				try {
+					action.accept((T) timeout.task);
+				} catch (final RuntimeException e) {
+					LogUtil.exception(Level.WARN, e, "Timer wheel action failure");
+				}
+			}
+			timeout = next;
+		}
+	}
+
+	/**
+	 Passes the tasks still in the wheel buckets and in the queue to the cancel action. Invoked by the ticking thread on
+	 its exit.
+	 */
+	@SuppressWarnings("unchecked")
+	private void cancelPending() {
+		for (var i = 0; i < WHEEL_SIZE; i ++) {
+			var timeout = buckets[i];
+			buckets[i] = null;
+			while (timeout != null) {
+				cancel((T) timeout.task);
+				timeout = timeout.next;
+			}
+		}
+		cancelScheduled();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void cancelScheduled() {
+		Timeout timeout;
+		while (null != (timeout = scheduled.poll())) {
+			cancel((T) timeout.task);
+		}
+	}
+
+	private void cancel(final T task) {
+		try {
+			cancelAction.accept(task);
+		} catch (final RuntimeException e) {
+			LogUtil.exception(Level.WARN, e, "Timer wheel cancel action failure");
+		}
+	}
+
+	/**
+	 Stops the ticking thread which cancels the pending tasks on its exit. The tasks scheduled concurrently with the
+	 close are cancelled by the closing thread then.
+	 */
+	@Override
+	public void close() {
+		ticker.interrupt();
+		try {
+			ticker.join(CLOSE_TIMEOUT_MILLIS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (ticker.isAlive()) {
+			Loggers.ERR.warn(
+				"{}: the timer thread didn't stop in time, it cancels the pending tasks on its exit", name
+			);
+		} else {
+			cancelScheduled();
+		}
+	}
+
+	private static final class Timeout {
+
+		private final Object task;
+		private final long deadline;
+		private long rounds;
+		private Timeout next;
+
+		Timeout(final Object task, final long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+	}
+}
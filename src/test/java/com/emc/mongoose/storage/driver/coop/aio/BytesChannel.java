@@ -0,0 +1,123 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ The test channel backed by the byte array. The I/O is completed asynchronously by the given executor. Each write may
+ be shortened or failed by its sequence number to simulate the storage behaviour.
+ */
+final class BytesChannel
+implements AsyncChannel {
+
+	/**
+	 Decides the count of the bytes to write by the write sequence number (starting from 0)
+	 */
+	interface WriteLimiter {
+
+		/**
+		 @return the count of the bytes to write not more than the requested one, -1 to fail the write
+		 */
+		int limit(final int writeSeq, final int requestedSize);
+	}
+
+	static final WriteLimiter NO_LIMIT = (writeSeq, requestedSize) -> requestedSize;
+
+	private final Executor executor;
+	private final WriteLimiter writeLimiter;
+	private final AtomicInteger writeSeq = new AtomicInteger(0);
+	private final AtomicInteger ioInFlightCount = new AtomicInteger(0);
+	private final List<Object> handlers = new CopyOnWriteArrayList<>();
+	private volatile byte[] content;
+	private volatile boolean open = true;
+
+	BytesChannel(final byte[] content, final Executor executor, final WriteLimiter writeLimiter) {
+		this.content = content;
+		this.executor = executor;
+		this.writeLimiter = writeLimiter;
+	}
+
+	@Override
+	public <A> void read(
+		final ByteBuffer dst, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		handlers.add(handler);
+		ioInFlightCount.incrementAndGet();
+		executor.execute(
+			() -> {
+				final int n;
+				synchronized (this) {
+					if (position >= content.length) {
+						n = -1;
+					} else {
+						n = (int) Math.min(dst.remaining(), content.length - position);
+						dst.put(content, (int) position, n);
+					}
+				}
+				handler.completed(n, attach);
+				ioInFlightCount.decrementAndGet();
+			}
+		);
+	}
+
+	@Override
+	public <A> void write(
+		final ByteBuffer src, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		handlers.add(handler);
+		ioInFlightCount.incrementAndGet();
+		final var n = writeLimiter.limit(writeSeq.getAndIncrement(), src.remaining());
+		executor.execute(
+			() -> {
+				if (n < 0) {
+					handler.failed(new IOException("Write failure @ " + position), attach);
+				} else {
+					synchronized (this) {
+						if (position + n > content.length) {
+							content = Arrays.copyOf(content, (int) position + n);
+						}
+						src.get(content, (int) position, n);
+					}
+					handler.completed(n, attach);
+				}
+				ioInFlightCount.decrementAndGet();
+			}
+		);
+	}
+
+	synchronized byte[] content() {
+		return content;
+	}
+
+	/**
+	 @return the count of the I/O requests which completion handlers are not done yet
+	 */
+	int ioInFlightCount() {
+		return ioInFlightCount.get();
+	}
+
+	/**
+	 @return the completion handlers passed with the I/O requests
+	 */
+	List<Object> handlers() {
+		return handlers;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public void close() {
+		open = false;
+	}
+}
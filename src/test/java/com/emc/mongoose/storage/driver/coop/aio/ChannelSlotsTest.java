@@ -0,0 +1,188 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.emc.mongoose.base.item.io.AsyncChannel;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ChannelSlotsTest {
+
+	private static AsyncChannel channel() {
+		return (AsyncChannel) Proxy.newProxyInstance(
+			AsyncChannel.class.getClassLoader(), new Class<?>[] { AsyncChannel.class },
+			(proxy, method, args) -> {
+				switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "isOpen":
+						return true;
+					default:
+						return null;
+				}
+			}
+		);
+	}
+
+	@Test
+	public void testProbingWrapsAroundTheTable()
+	throws Exception {
+		// the table capacity is 4, so all the operations collide and some of them wrap around the table end
+		final var slots = new ChannelSlots(1);
+		final var ops = new Object[4];
+		final var channels = new AsyncChannel[ops.length];
+		for (var i = 0; i < ops.length; i ++) {
+			ops[i] = new Object();
+			channels[i] = channel();
+			slots.put(ops[i], channels[i]);
+		}
+		for (var i = 0; i < ops.length; i ++) {
+			assertSame(channels[i], slots.get(ops[i]));
+		}
+		assertNull(slots.get(new Object()));
+	}
+
+	@Test
+	public void testRemovedSlotDoesNotHideTheProbedOnes()
+	throws Exception {
+		final var slots = new ChannelSlots(1);
+		final var ops = new Object[4];
+		final var channels = new AsyncChannel[ops.length];
+		for (var i = 0; i < ops.length; i ++) {
+			ops[i] = new Object();
+			channels[i] = channel();
+			slots.put(ops[i], channels[i]);
+		}
+		// no tombstones are left, the lookup should scan the whole probe window anyway
+		for (var i = 0; i < ops.length; i += 2) {
+			assertSame(channels[i], slots.remove(ops[i]));
+			assertNull(slots.get(ops[i]));
+		}
+		for (var i = 1; i < ops.length; i += 2) {
+			assertSame(channels[i], slots.get(ops[i]));
+		}
+		// the released slots are reused
+		for (var i = 0; i < ops.length; i += 2) {
+			ops[i] = new Object();
+			channels[i] = channel();
+			slots.put(ops[i], channels[i]);
+		}
+		for (var i = 0; i < ops.length; i ++) {
+			assertSame(channels[i], slots.remove(ops[i]));
+		}
+		for (final var op : ops) {
+			assertNull(slots.get(op));
+			assertNull(slots.remove(op));
+		}
+	}
+
+	@Test
+	public void testOverflow()
+	throws Exception {
+		final var slots = new ChannelSlots(1);
+		final var count = 100; // much more than the table capacity
+		final var ops = new Object[count];
+		final var channels = new AsyncChannel[count];
+		for (var i = 0; i < count; i ++) {
+			ops[i] = new Object();
+			channels[i] = channel();
+			slots.put(ops[i], channels[i]);
+		}
+		for (var i = 0; i < count; i ++) {
+			assertSame(channels[i], slots.get(ops[i]));
+		}
+		final Set<AsyncChannel> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		slots.forEach(visited::add);
+		assertEquals(count, visited.size());
+		for (final var channel : channels) {
+			assertTrue(visited.contains(channel));
+		}
+		for (var i = 0; i < count; i ++) {
+			assertSame(channels[i], slots.remove(ops[i]));
+			assertNull(slots.get(ops[i]));
+		}
+		visited.clear();
+		slots.forEach(visited::add);
+		assertTrue(visited.isEmpty());
+	}
+
+	@Test
+	public void testClear()
+	throws Exception {
+		final var slots = new ChannelSlots(1);
+		final var ops = new Object[10];
+		for (var i = 0; i < ops.length; i ++) {
+			ops[i] = new Object();
+			slots.put(ops[i], channel());
+		}
+		slots.clear();
+		for (final var op : ops) {
+			assertNull(slots.get(op));
+		}
+		final List<AsyncChannel> visited = new ArrayList<>();
+		slots.forEach(visited::add);
+		assertTrue(visited.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentOperations()
+	throws Exception {
+		final var threadCount = 8;
+		final var opsPerThread = 0x1_00;
+		final var iterations = 100;
+		// the table fits only the part of the operations in flight, the rest goes to the overflow map
+		final var slots = new ChannelSlots(threadCount * opsPerThread / 4);
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			final List<Future<?>> results = new ArrayList<>(threadCount);
+			for (var t = 0; t < threadCount; t ++) {
+				results.add(
+					executor.submit(
+						() -> {
+							final var ops = new Object[opsPerThread];
+							final var channels = new AsyncChannel[opsPerThread];
+							for (var i = 0; i < opsPerThread; i ++) {
+								channels[i] = channel();
+							}
+							for (var n = 0; n < iterations; n ++) {
+								for (var i = 0; i < opsPerThread; i ++) {
+									ops[i] = new Object();
+									slots.put(ops[i], channels[i]);
+								}
+								for (var i = 0; i < opsPerThread; i ++) {
+									assertSame(channels[i], slots.get(ops[i]));
+								}
+								for (var i = 0; i < opsPerThread; i ++) {
+									assertSame(channels[i], slots.remove(ops[i]));
+									assertNull(slots.get(ops[i]));
+								}
+							}
+							return null;
+						}
+					)
+				);
+			}
+			for (final var result : results) {
+				result.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.emc.mongoose.base.data.DataInput;
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.Operation;
+import com.github.akurilov.confuse.Config;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The copy is performed by the driver from the source test channel to the destination one by the small chunks, so the
+ pipeline has the read and the write in flight most of the time
+ */
+public class CopyPipelineTest {
+
+	private static final int CHUNK_SIZE = 0x10_00;
+	private static final int CONTENT_SIZE = 0x10 * CHUNK_SIZE + 123;
+
+	private static DataInput dataInput;
+	private static Config storageConfig;
+
+	private ExecutorService executor;
+	private TestDriver driver;
+
+	@BeforeClass
+	public static void setUpClass()
+	throws Exception {
+		dataInput = TestSupport.dataInput();
+		storageConfig = TestSupport.storageConfig(
+			Map.of("storage-driver-aio-io-buffer-min", CHUNK_SIZE, "storage-driver-aio-io-buffer-max", CHUNK_SIZE)
+		);
+	}
+
+	@AfterClass
+	public static void tearDownClass()
+	throws Exception {
+		dataInput.close();
+	}
+
+	@Before
+	public void setUp()
+	throws Exception {
+		executor = Executors.newFixedThreadPool(2);
+		driver = new TestDriver(dataInput, storageConfig);
+	}
+
+	@After
+	public void tearDown()
+	throws Exception {
+		driver.close();
+		executor.shutdownNow();
+	}
+
+	private static byte[] content() {
+		final var content = new byte[CONTENT_SIZE];
+		new Random(CONTENT_SIZE).nextBytes(content);
+		return content;
+	}
+
+	@Test
+	public void testShortWritesMidPipeline()
+	throws Exception {
+		final var srcContent = content();
+		final var src = new BytesChannel(srcContent, executor, BytesChannel.NO_LIMIT);
+		// some chunks in the middle are written partially, the rest of such chunk should be written before the next one
+		final var dst = new BytesChannel(
+			new byte[0], executor, (writeSeq, requestedSize) -> writeSeq % 3 == 2 ? requestedSize / 3 : requestedSize
+		);
+		final var dataOp = TestSupport.startedDataOp(
+			OpType.CREATE, TestSupport.dataItem(dataInput, "item", CONTENT_SIZE), "src", "dst"
+		);
+		driver.invokeCopyData(dataOp, src, dst);
+		assertSame(dataOp, driver.awaitFinished());
+		assertEquals(Operation.Status.SUCC, dataOp.status());
+		assertEquals(CONTENT_SIZE, dataOp.countBytesDone());
+		assertArrayEquals(srcContent, dst.content());
+	}
+
+	@Test
+	public void testFailedPipelineIsReused()
+	throws Exception {
+		final var srcContent = content();
+		final var src1 = new BytesChannel(srcContent, executor, BytesChannel.NO_LIMIT);
+		final var dst1 = new BytesChannel(
+			new byte[0], executor, (writeSeq, requestedSize) -> writeSeq == 2 ? -1 : requestedSize
+		);
+		final var dataOp1 = TestSupport.startedDataOp(
+			OpType.CREATE, TestSupport.dataItem(dataInput, "item1", CONTENT_SIZE), "src", "dst"
+		);
+		driver.invokeCopyData(dataOp1, src1, dst1);
+		assertSame(dataOp1, driver.awaitFinished());
+		assertEquals(Operation.Status.FAIL_IO, dataOp1.status());
+		// the pipeline is returned to the pool only after its read in flight is done
+		final var deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+		while (src1.ioInFlightCount() > 0 || dst1.ioInFlightCount() > 0) {
+			assertTrue("The I/O is still in flight after the failure", System.nanoTime() < deadline);
+			Thread.sleep(1);
+		}
+		final Set<Object> failedCopyHandlers = Collections.newSetFromMap(new IdentityHashMap<>());
+		failedCopyHandlers.addAll(src1.handlers());
+		failedCopyHandlers.addAll(dst1.handlers());
+		final var src2 = new BytesChannel(srcContent, executor, BytesChannel.NO_LIMIT);
+		final var dst2 = new BytesChannel(new byte[0], executor, BytesChannel.NO_LIMIT);
+		final var dataOp2 = TestSupport.startedDataOp(
+			OpType.CREATE, TestSupport.dataItem(dataInput, "item2", CONTENT_SIZE), "src", "dst"
+		);
+		driver.invokeCopyData(dataOp2, src2, dst2);
+		assertSame(dataOp2, driver.awaitFinished());
+		assertEquals(Operation.Status.SUCC, dataOp2.status());
+		assertArrayEquals(srcContent, dst2.content());
+		// the same pipeline stages are used for the next copy
+		assertFalse(src2.handlers().isEmpty());
+		for (final var handler : src2.handlers()) {
+			assertTrue(failedCopyHandlers.contains(handler));
+		}
+		for (final var handler : dst2.handlers()) {
+			assertTrue(failedCopyHandlers.contains(handler));
+		}
+		// the failed operation is finished only once
+		assertNull(driver.pollFinished());
+	}
+}
@@ -0,0 +1,132 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.emc.mongoose.base.data.DataInput;
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.DataItemImpl;
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.emc.mongoose.base.item.op.data.DataOperationImpl;
+import com.github.akurilov.commons.collection.Range;
+import com.github.akurilov.commons.system.SizeInBytes;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ The update is applied to the in-memory content and committed, then the content is verified the same way as the read
+ operation does it
+ */
+public class RangesUpdateTest {
+
+	private static final long ITEM_SIZE = 0x1_00_00;
+	private static final int BUFF_SIZE = 0x4_00;
+
+	private static DataInput dataInput;
+
+	private DataItem item;
+	private ByteBuffer content;
+
+	@BeforeClass
+	public static void setUpClass()
+	throws Exception {
+		dataInput = DataInput.instance(null, "7a42d9c483244167", new SizeInBytes("4MB"), 16);
+	}
+
+	@AfterClass
+	public static void tearDownClass()
+	throws Exception {
+		dataInput.close();
+	}
+
+	@Before
+	public void setUp()
+	throws Exception {
+		item = new DataItemImpl("item", 0, ITEM_SIZE);
+		item.dataInput(dataInput);
+		content = ByteBuffer.allocate((int) (2 * ITEM_SIZE));
+		content.limit((int) ITEM_SIZE);
+		while (content.hasRemaining()) {
+			item.read(content);
+		}
+		content.flip();
+	}
+
+	@Test
+	public void testFixedRangeUpdateIsVerifiable()
+	throws Exception {
+		update(List.of(new Range(100, 4999, -1)));
+		assertTrue(item.isUpdated());
+		assertEquals(ITEM_SIZE, item.size());
+		verify();
+	}
+
+	@Test
+	public void testRepeatedFixedRangeUpdateIsVerifiable()
+	throws Exception {
+		update(List.of(new Range(100, 4999, -1)));
+		update(List.of(new Range(-1, 1000, -1), new Range(2000, -1, -1)));
+		verify();
+	}
+
+	@Test
+	public void testAppendIsVerifiable()
+	throws Exception {
+		update(List.of(new Range(-1, -1, 12345)));
+		assertEquals(ITEM_SIZE + 12345, item.size());
+		verify();
+	}
+
+	private void update(final List<Range> fixedRanges)
+	throws Exception {
+		final DataOperation<DataItem> updateOp = new DataOperationImpl<>(
+			0, OpType.UPDATE, item, null, null, null, fixedRanges, 0
+		);
+		final var rangesUpdate = new RangesUpdate().init(updateOp, null);
+		final var buff = ByteBuffer.allocate(BUFF_SIZE);
+		var pos = rangesUpdate.start(buff);
+		while (pos >= 0) {
+			final var n = buff.remaining();
+			content.limit(Math.max(content.limit(), (int) pos + n));
+			content.position((int) pos);
+			content.put(buff);
+			pos = rangesUpdate.next(buff, n);
+		}
+		assertEquals(RangesUpdate.NO_MORE_CHUNKS, pos);
+		assertEquals(RangesUpdate.ALL_DONE, rangesUpdate.ended());
+		assertEquals(rangesUpdate.size(), updateOp.countBytesDone());
+		rangesUpdate.commit();
+		rangesUpdate.clear();
+		content.position(0);
+	}
+
+	private void verify()
+	throws Exception {
+		final var itemSize = item.size();
+		assertEquals(itemSize, content.limit());
+		if (item.isUpdated()) {
+			final DataOperation<DataItem> readOp = new DataOperationImpl<>(
+				0, OpType.READ, item, null, null, null, null, 0
+			);
+			final var rangeCount = DataItem.rangeCount(itemSize);
+			for (var i = 0; i < rangeCount; i ++) {
+				final var rangeBeg = (int) DataItem.rangeOffset(i);
+				final var rangeEnd = (int) Math.min(DataItem.rangeOffset(i + 1), itemSize);
+				readOp.currRangeIdx(i);
+				final var range = readOp.currRange();
+				range.position(0);
+				range.verify(content.duplicate().limit(rangeEnd).position(rangeBeg));
+			}
+		} else {
+			item.position(0);
+			item.verify(content.duplicate());
+		}
+	}
+}
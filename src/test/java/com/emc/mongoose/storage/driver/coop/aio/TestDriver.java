@@ -0,0 +1,86 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import com.emc.mongoose.base.config.IllegalConfigurationException;
+import com.emc.mongoose.base.data.DataInput;
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.ItemFactory;
+import com.emc.mongoose.base.item.io.AsyncChannel;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+import com.emc.mongoose.base.storage.Credential;
+import com.github.akurilov.confuse.Config;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The driver for the tests which invoke the data operations directly with the test channels. The finished operations
+ are collected instead of passing them to the driver output.
+ */
+final class TestDriver
+extends AioStorageDriverBase<DataItem, DataOperation<DataItem>> {
+
+	private static final long FINISH_TIMEOUT_SECONDS = 60;
+
+	private final BlockingQueue<DataOperation<DataItem>> finishedOps = new LinkedBlockingQueue<>();
+
+	TestDriver(final DataInput dataInput, final Config storageConfig)
+	throws IllegalConfigurationException {
+		super(TestSupport.STEP_ID, dataInput, storageConfig, false, TestSupport.BATCH_SIZE);
+	}
+
+	@Override
+	protected AsyncChannel openSourceChannel(final DataOperation<? extends DataItem> dataOp) {
+		return null;
+	}
+
+	@Override
+	protected AsyncChannel openDestinationChannel(final DataOperation<? extends DataItem> dataOp) {
+		return null;
+	}
+
+	@Override
+	protected boolean handleCompleted(final DataOperation<DataItem> op) {
+		finishedOps.add(op);
+		return true;
+	}
+
+	/**
+	 @return the next finished operation
+	 @throws AssertionError if no operation is finished in time
+	 */
+	DataOperation<DataItem> awaitFinished()
+	throws InterruptedException {
+		final var op = finishedOps.poll(FINISH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		if (op == null) {
+			throw new AssertionError("No operation finished in " + FINISH_TIMEOUT_SECONDS + " seconds");
+		}
+		return op;
+	}
+
+	/**
+	 @return the finished operation if any, null otherwise
+	 */
+	DataOperation<DataItem> pollFinished() {
+		return finishedOps.poll();
+	}
+
+	@Override
+	protected String requestNewPath(final String path) {
+		return path;
+	}
+
+	@Override
+	protected String requestNewAuthToken(final Credential credential) {
+		return null;
+	}
+
+	@Override
+	public List<DataItem> list(
+		final ItemFactory<DataItem> itemFactory, final String path, final String prefix, final int idRadix,
+		final DataItem lastPrevItem, final int count
+	) {
+		return null;
+	}
+}
@@ -0,0 +1,142 @@
+package com.emc.mongoose.storage.driver.coop.aio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.emc.mongoose.base.data.DataInput;
+import com.emc.mongoose.base.item.DataItem;
+import com.emc.mongoose.base.item.op.OpType;
+import com.emc.mongoose.base.item.op.data.DataOperation;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ The windowed create state transitions as the driver invokes them: the invoking thread starts the segment writes and
+ reports the end of the starting, each write reports its completion or failure and continues with the next segment
+ */
+public class WindowedCreateTest {
+
+	private static final long SEGMENT_SIZE = 0x1_00;
+	private static final long CONTENT_SIZE = 10 * SEGMENT_SIZE;
+
+	private static DataInput dataInput;
+
+	private DataOperation<DataItem> dataOp;
+	private WindowedCreate windowedCreate;
+
+	@BeforeClass
+	public static void setUpClass()
+	throws Exception {
+		dataInput = TestSupport.dataInput();
+	}
+
+	@AfterClass
+	public static void tearDownClass()
+	throws Exception {
+		dataInput.close();
+	}
+
+	@Before
+	public void setUp() {
+		dataOp = TestSupport.startedDataOp(
+			OpType.CREATE, TestSupport.dataItem(dataInput, "item", CONTENT_SIZE), null, null
+		);
+		windowedCreate = new WindowedCreate().init(dataOp, null, 0, CONTENT_SIZE, SEGMENT_SIZE);
+	}
+
+	@Test
+	public void testAllDone() {
+		assertEquals(0, windowedCreate.start());
+		assertEquals(SEGMENT_SIZE, windowedCreate.start());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.started());
+		var nextPos = 2 * SEGMENT_SIZE;
+		// both writes continue with the next segments until the content end
+		while (nextPos < CONTENT_SIZE) {
+			assertEquals(nextPos, windowedCreate.next(SEGMENT_SIZE));
+			nextPos += SEGMENT_SIZE;
+		}
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.next(SEGMENT_SIZE));
+		assertEquals(WindowedCreate.ALL_DONE, windowedCreate.next(SEGMENT_SIZE));
+		assertEquals(CONTENT_SIZE, dataOp.countBytesDone());
+	}
+
+	@Test
+	public void testAllDoneBeforeStartingEnds() {
+		final var window = (int) (CONTENT_SIZE / SEGMENT_SIZE) + 1;
+		var startedCount = 0;
+		for (var i = 0; i < window; i ++) {
+			if (windowedCreate.start() < 0) {
+				break;
+			}
+			startedCount ++;
+		}
+		assertEquals(CONTENT_SIZE / SEGMENT_SIZE, startedCount);
+		for (var i = 0; i < startedCount; i ++) {
+			assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.next(SEGMENT_SIZE));
+		}
+		// the invoking thread holds the state until it ends the starting
+		assertEquals(WindowedCreate.ALL_DONE, windowedCreate.started());
+		assertEquals(CONTENT_SIZE, dataOp.countBytesDone());
+	}
+
+	@Test
+	public void testSegmentFailureAfterOtherCompletions() {
+		assertEquals(0, windowedCreate.start());
+		assertEquals(SEGMENT_SIZE, windowedCreate.start());
+		assertEquals(2 * SEGMENT_SIZE, windowedCreate.start());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.started());
+		assertEquals(3 * SEGMENT_SIZE, windowedCreate.next(SEGMENT_SIZE));
+		assertEquals(4 * SEGMENT_SIZE, windowedCreate.next(SEGMENT_SIZE));
+		final var countBytesDone = dataOp.countBytesDone();
+		assertEquals(2 * SEGMENT_SIZE, countBytesDone);
+		// the third write fails, the operation should be failed only once
+		assertTrue(windowedCreate.fail());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.next(0));
+		// the writes still in flight don't continue, the last one aborts the create
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.next(SEGMENT_SIZE));
+		assertEquals(WindowedCreate.ABORTED, windowedCreate.next(SEGMENT_SIZE));
+		assertEquals(countBytesDone, dataOp.countBytesDone());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.start());
+	}
+
+	@Test
+	public void testConcurrentFailures() {
+		assertEquals(0, windowedCreate.start());
+		assertEquals(SEGMENT_SIZE, windowedCreate.start());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.started());
+		assertTrue(windowedCreate.fail());
+		assertFalse(windowedCreate.fail());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.next(0));
+		assertEquals(WindowedCreate.ABORTED, windowedCreate.next(0));
+	}
+
+	@Test
+	public void testSegmentFailureBeforeStartingEnds() {
+		assertEquals(0, windowedCreate.start());
+		assertEquals(SEGMENT_SIZE, windowedCreate.start());
+		assertEquals(2 * SEGMENT_SIZE, windowedCreate.next(SEGMENT_SIZE));
+		assertTrue(windowedCreate.fail());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.next(0));
+		// no more writes are started after the failure
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.start());
+		assertEquals(WindowedCreate.NO_MORE_SEGMENTS, windowedCreate.next(SEGMENT_SIZE));
+		// the invoking thread is the last one, so it aborts the create
+		assertEquals(WindowedCreate.ABORTED, windowedCreate.started());
+	}
+
+	@Test
+	public void testUnalignedStartSegments() {
+		final var countBytesDone = SEGMENT_SIZE / 2;
+		windowedCreate.init(dataOp, null, countBytesDone, CONTENT_SIZE, SEGMENT_SIZE);
+		assertEquals(countBytesDone, windowedCreate.start());
+		assertEquals(SEGMENT_SIZE, windowedCreate.segmentEnd(countBytesDone));
+		// the next segments are aligned
+		assertEquals(SEGMENT_SIZE, windowedCreate.start());
+		assertEquals(2 * SEGMENT_SIZE, windowedCreate.segmentEnd(SEGMENT_SIZE));
+		assertEquals(CONTENT_SIZE, windowedCreate.segmentEnd(CONTENT_SIZE - 1));
+	}
+}
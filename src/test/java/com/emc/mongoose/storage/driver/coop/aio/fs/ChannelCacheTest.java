@@ -0,0 +1,168 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ The cached channels are evicted while the operations still use them: such channel should be closed only when its last
+ reference is released
+ */
+public class ChannelCacheTest {
+
+	private static final Set<OpenOption> OPEN_OPTS = Set.of(StandardOpenOption.READ, StandardOpenOption.WRITE);
+	private static final Path PATH_A = Paths.get("a");
+	private static final Path PATH_B = Paths.get("b");
+
+	private final List<TestChannel> openedChannels = new CopyOnWriteArrayList<>();
+	private ChannelCache cache;
+
+	@Before
+	public void setUp() {
+		openedChannels.clear();
+		cache = new ChannelCache(
+			1,
+			(path, openOpts) -> {
+				final var channel = new TestChannel();
+				openedChannels.add(channel);
+				return channel;
+			},
+			getClass().getSimpleName()
+		);
+	}
+
+	@After
+	public void tearDown() {
+		cache.close();
+	}
+
+	/**
+	 The evicted channel is closed asynchronously
+	 */
+	private static void awaitClosed(final TestChannel channel)
+	throws InterruptedException {
+		final var deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+		while (channel.closeCount() == 0) {
+			assertTrue("The channel is not closed in time", System.nanoTime() < deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	public void testEvictReferenced()
+	throws Exception {
+		final var cachedA = cache.acquire(PATH_A, OPEN_OPTS);
+		final var channelA = openedChannels.get(0);
+		// the capacity is 1, so the channel "a" is evicted while it's still referenced
+		final var cachedB = cache.acquire(PATH_B, OPEN_OPTS);
+		assertEquals(2, openedChannels.size());
+		TimeUnit.MILLISECONDS.sleep(10);
+		assertEquals(0, channelA.closeCount());
+		assertTrue(cachedA.isOpen());
+		// the evicted channel is still usable by the operation holding it
+		final var written = new AtomicInteger(-1);
+		cachedA.write(
+			ByteBuffer.allocate(10), 0, null,
+			new CompletionHandler<Integer, Object>() {
+				@Override
+				public void completed(final Integer n, final Object attach) {
+					written.set(n);
+				}
+				@Override
+				public void failed(final Throwable e, final Object attach) {
+				}
+			}
+		);
+		assertEquals(10, written.get());
+		cachedA.close();
+		awaitClosed(channelA);
+		cachedB.close();
+		// the cached channel is not closed on the reference release
+		TimeUnit.MILLISECONDS.sleep(10);
+		assertEquals(0, openedChannels.get(1).closeCount());
+		assertEquals(1, channelA.closeCount());
+	}
+
+	@Test
+	public void testEvictMultiplyReferenced()
+	throws Exception {
+		final var cachedA1 = cache.acquire(PATH_A, OPEN_OPTS);
+		final var cachedA2 = cache.acquire(PATH_A, OPEN_OPTS);
+		assertSame(cachedA1, cachedA2);
+		assertEquals(1, openedChannels.size());
+		final var channelA = openedChannels.get(0);
+		cache.acquire(PATH_B, OPEN_OPTS).close();
+		cachedA1.close();
+		TimeUnit.MILLISECONDS.sleep(10);
+		assertEquals("The evicted channel is closed while it's still referenced", 0, channelA.closeCount());
+		cachedA2.close();
+		awaitClosed(channelA);
+		assertEquals(1, channelA.closeCount());
+	}
+
+	@Test
+	public void testReacquireEvictedReferenced()
+	throws Exception {
+		final var cachedA1 = cache.acquire(PATH_A, OPEN_OPTS);
+		cache.acquire(PATH_B, OPEN_OPTS).close();
+		// the evicted channel is not reused, the new one is opened for the same file
+		final var cachedA2 = cache.acquire(PATH_A, OPEN_OPTS);
+		assertNotSame(cachedA1, cachedA2);
+		assertEquals(3, openedChannels.size());
+		final var channelA1 = openedChannels.get(0);
+		final var channelA2 = openedChannels.get(2);
+		cachedA1.close();
+		awaitClosed(channelA1);
+		TimeUnit.MILLISECONDS.sleep(10);
+		assertEquals(0, channelA2.closeCount());
+		cachedA2.close();
+		// the new channel is cached
+		assertSame(cachedA2, cache.acquire(PATH_A, OPEN_OPTS));
+		assertEquals(3, openedChannels.size());
+	}
+
+	@Test
+	public void testInvalidateReferenced()
+	throws Exception {
+		final var cachedA = cache.acquire(PATH_A, OPEN_OPTS);
+		final var channelA = openedChannels.get(0);
+		cache.invalidate(PATH_A, OPEN_OPTS);
+		TimeUnit.MILLISECONDS.sleep(10);
+		assertEquals(0, channelA.closeCount());
+		cachedA.close();
+		awaitClosed(channelA);
+		// the invalidated file is reopened
+		cache.acquire(PATH_A, OPEN_OPTS).close();
+		assertEquals(2, openedChannels.size());
+	}
+
+	@Test
+	public void testCloseReferenced()
+	throws Exception {
+		final var cachedA = cache.acquire(PATH_A, OPEN_OPTS);
+		final var channelA = openedChannels.get(0);
+		cache.close();
+		assertEquals(0, channelA.closeCount());
+		// the channel is closed on the last reference release even if the cache is closed already
+		cachedA.close();
+		awaitClosed(channelA);
+		assertEquals(1, channelA.closeCount());
+	}
+}
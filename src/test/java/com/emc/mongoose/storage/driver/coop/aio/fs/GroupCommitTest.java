@@ -0,0 +1,113 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ The group commit is closed while some files are still waiting for the sync: each pending operation should be reported
+ done exactly once
+ */
+public class GroupCommitTest {
+
+	private static final class Result {
+
+		final Thread thread;
+		final IOException e;
+
+		Result(final Thread thread, final IOException e) {
+			this.thread = thread;
+			this.e = e;
+		}
+	}
+
+	private final Map<Integer, Result> results = new ConcurrentHashMap<>();
+	private final Map<Integer, Integer> reportCounts = new ConcurrentHashMap<>();
+
+	private void synced(final GroupCommit.Entry<Integer> entry, final IOException e) {
+		results.put(entry.op, new Result(Thread.currentThread(), e));
+		reportCounts.merge(entry.op, 1, Integer::sum);
+	}
+
+	private void assertReportedOnce(final int opCount) {
+		assertEquals(opCount, reportCounts.size());
+		for (var op = 0; op < opCount; op ++) {
+			assertEquals("The operation #" + op + " is reported not once", 1, (int) reportCounts.get(op));
+		}
+	}
+
+	@Test
+	public void testCloseWhileGatheringTheBatch()
+	throws Exception {
+		// the period is long enough for the sync thread to wait for the batch until the close
+		final var groupCommit = new GroupCommit<Integer>(
+			getClass().getSimpleName(), TimeUnit.MINUTES.toMillis(1), 2, this::synced
+		);
+		final var channels = new TestChannel[] { new TestChannel(), new TestChannel() };
+		final var opCount = 10;
+		for (var op = 0; op < opCount; op ++) {
+			groupCommit.submit(op, null, channels[op % channels.length]);
+		}
+		groupCommit.close();
+		assertEquals(0, groupCommit.pendingCount());
+		assertReportedOnce(opCount);
+		for (final var result : results.values()) {
+			assertNull(result.e);
+		}
+		// all the operations are synced in the single batch, so each file is synced once
+		for (final var channel : channels) {
+			assertEquals(1, channel.syncCount());
+		}
+	}
+
+	@Test
+	public void testCloseWhileSyncing()
+	throws Exception {
+		final var groupCommit = new GroupCommit<Integer>(getClass().getSimpleName(), 0, 2, this::synced);
+		// the sync thread is blocked syncing the 1st file, the rest of the files are pending
+		final var blockedChannel = new TestChannel(new CountDownLatch(1));
+		groupCommit.submit(0, null, blockedChannel);
+		assertTrue(blockedChannel.awaitSyncStarted());
+		final var channel = new TestChannel();
+		final var opCount = 5;
+		for (var op = 1; op < opCount; op ++) {
+			groupCommit.submit(op, null, channel);
+		}
+		assertEquals(opCount - 1, groupCommit.pendingCount());
+		// the close interrupts the sync in progress and syncs the pending files itself
+		groupCommit.close();
+		assertEquals(0, groupCommit.pendingCount());
+		assertReportedOnce(opCount);
+		assertNotNull(results.get(0).e);
+		for (var op = 1; op < opCount; op ++) {
+			final var result = results.get(op);
+			assertNull(result.e);
+			assertSame(Thread.currentThread(), result.thread);
+		}
+		assertEquals(1, channel.syncCount());
+	}
+
+	@Test
+	public void testSubmitAfterClose()
+	throws Exception {
+		final var groupCommit = new GroupCommit<Integer>(getClass().getSimpleName(), 0, 2, this::synced);
+		groupCommit.close();
+		final var channel = new TestChannel();
+		groupCommit.submit(0, null, channel);
+		// the sync thread is stopped already, so the submitting thread syncs the file
+		assertReportedOnce(1);
+		assertNull(results.get(0).e);
+		assertSame(Thread.currentThread(), results.get(0).thread);
+		assertEquals(1, channel.syncCount());
+	}
+}
@@ -0,0 +1,94 @@
+package com.emc.mongoose.storage.driver.coop.aio.fs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ The test channel which counts its syncs and closes. The sync may be blocked until the given latch is released to
+ simulate the slow storage device, the blocked sync fails if the syncing thread is interrupted.
+ */
+final class TestChannel
+implements SyncableChannel {
+
+	private static final long AWAIT_TIMEOUT_SECONDS = 60;
+
+	private final CountDownLatch syncLatch;
+	private final CountDownLatch syncStartedLatch = new CountDownLatch(1);
+	private final AtomicInteger syncCount = new AtomicInteger(0);
+	private final AtomicInteger closeCount = new AtomicInteger(0);
+
+	TestChannel() {
+		this(new CountDownLatch(0));
+	}
+
+	/**
+	 @param syncLatch the latch the sync waits for
+	 */
+	TestChannel(final CountDownLatch syncLatch) {
+		this.syncLatch = syncLatch;
+	}
+
+	@Override
+	public <A> void read(
+		final ByteBuffer dst, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		handler.completed(0, attach);
+	}
+
+	@Override
+	public <A> void write(
+		final ByteBuffer src, final long position, final A attach, final CompletionHandler<Integer, ? super A> handler
+	) {
+		final var n = src.remaining();
+		src.position(src.limit());
+		handler.completed(n, attach);
+	}
+
+	@Override
+	public void sync(final boolean metaData)
+	throws IOException {
+		syncStartedLatch.countDown();
+		try {
+			syncLatch.await();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while syncing");
+		}
+		syncCount.incrementAndGet();
+	}
+
+	/**
+	 Waits until the sync is invoked at least once
+	 @return true if the sync is invoked in time, false otherwise
+	 */
+	boolean awaitSyncStarted()
+	throws InterruptedException {
+		return syncStartedLatch.await(AWAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 @return the count of the successful syncs
+	 */
+	int syncCount() {
+		return syncCount.get();
+	}
+
+	int closeCount() {
+		return closeCount.get();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return closeCount.get() == 0;
+	}
+
+	@Override
+	public void close() {
+		closeCount.incrementAndGet();
+	}
+}